@@ -0,0 +1,431 @@
+package develop.toolkit.base.components;
+
+import develop.toolkit.base.utils.ArrayAdvice;
+import develop.toolkit.base.utils.JavaBeanUtils;
+import lombok.Getter;
+
+import java.lang.invoke.*;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * 实体绑定器
+ * 每个类只解析一次，构造方法编译成MethodHandle，属性读写编译成LambdaMetafactory生成的Function/BiConsumer，
+ * 每列的字符串转换器在解析时就确定，绑定每一行时不再走反射和类型判断
+ *
+ * @author qiushui on 2026-10-17.
+ */
+@SuppressWarnings("unused")
+public final class BeanBinder<T> {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final ClassValue<BeanBinder<?>> BINDERS = new ClassValue<>() {
+        @Override
+        protected BeanBinder<?> computeValue(Class<?> type) {
+            return new BeanBinder<>(type);
+        }
+    };
+
+    private static final Map<Class<?>, Function<String, Object>> CONVERTERS = Map.ofEntries(
+            Map.entry(String.class, value -> value),
+            Map.entry(int.class, Integer::valueOf),
+            Map.entry(Integer.class, Integer::valueOf),
+            Map.entry(long.class, Long::valueOf),
+            Map.entry(Long.class, Long::valueOf),
+            Map.entry(boolean.class, Boolean::valueOf),
+            Map.entry(Boolean.class, Boolean::valueOf),
+            Map.entry(float.class, Float::valueOf),
+            Map.entry(Float.class, Float::valueOf),
+            Map.entry(double.class, Double::valueOf),
+            Map.entry(Double.class, Double::valueOf),
+            Map.entry(short.class, Short::valueOf),
+            Map.entry(Short.class, Short::valueOf),
+            Map.entry(char.class, value -> value.charAt(0)),
+            Map.entry(Character.class, value -> value.charAt(0)),
+            Map.entry(byte.class, Byte::valueOf),
+            Map.entry(Byte.class, Byte::valueOf)
+    );
+
+    @Getter
+    private final Class<T> beanClass;
+
+    /**
+     * 按参数个数缓存的构造绑定
+     */
+    private final Map<Integer, ConstructorBinding> constructors = new ConcurrentHashMap<>();
+
+    /**
+     * 按属性名缓存的读写器
+     */
+    private final Map<String, Function<Object, Object>> getters = new ConcurrentHashMap<>();
+
+    private final Map<String, Function<Object, Object>> fieldGetters = new ConcurrentHashMap<>();
+
+    private final Map<String, BiConsumer<Object, Object>> setters = new ConcurrentHashMap<>();
+
+    private final Map<String, BiConsumer<Object, Object>> fieldSetters = new ConcurrentHashMap<>();
+
+    /**
+     * 全部字段及其读取器，首次批量读写时解析
+     */
+    private volatile Field[] fields;
+
+    private volatile Function<Object, Object>[] fieldAccessors;
+
+    private BeanBinder(Class<T> beanClass) {
+        this.beanClass = beanClass;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> BeanBinder<T> of(Class<T> clazz) {
+        return (BeanBinder<T>) BINDERS.get(clazz);
+    }
+
+    /**
+     * 字符串转换器 (支持String和基本类型及其包装类)
+     */
+    public static Function<String, Object> converter(Class<?> type) {
+        final Function<String, Object> converter = CONVERTERS.get(type);
+        if (converter != null) {
+            return converter;
+        }
+        return value -> {
+            throw new ClassCastException("Can't convert \"" + value + "\" to " + type.getName());
+        };
+    }
+
+    /**
+     * 用参数个数相同的公开构造方法创建实例，每列按参数类型转换
+     *
+     * @param columns 列值
+     * @return 实例
+     */
+    @SuppressWarnings("unchecked")
+    public T newInstance(String[] columns) {
+        ConstructorBinding binding = constructors.get(columns.length);
+        if (binding == null) {
+            binding = constructors.computeIfAbsent(columns.length, ConstructorBinding::new);
+        }
+        final Object[] parameters = new Object[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            parameters[i] = columns[i] == null ? null : binding.converters[i].apply(columns[i]);
+        }
+        try {
+            return (T) (Object) binding.handle.invokeExact(parameters);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * 属性读取器，优先使用getter方法，没有getter方法时直接读字段
+     *
+     * @param property 属性名
+     * @return 读取器
+     */
+    public Function<T, Object> getter(String property) {
+        return cast(resolve(getters, property, p -> compileGetter(p, true)));
+    }
+
+    /**
+     * 字段读取器，不经过getter方法
+     *
+     * @param property 字段名
+     * @return 读取器
+     */
+    public Function<T, Object> fieldGetter(String property) {
+        return cast(resolve(fieldGetters, property, p -> compileGetter(p, false)));
+    }
+
+    /**
+     * 属性写入器，优先使用setter方法，没有setter方法时直接写字段
+     *
+     * @param property 属性名
+     * @return 写入器
+     */
+    public BiConsumer<T, Object> setter(String property) {
+        return cast(resolve(setters, property, p -> compileSetter(p, true)));
+    }
+
+    /**
+     * 字段写入器，不经过setter方法
+     *
+     * @param property 字段名
+     * @return 写入器
+     */
+    public BiConsumer<T, Object> fieldSetter(String property) {
+        return cast(resolve(fieldSetters, property, p -> compileSetter(p, false)));
+    }
+
+    /**
+     * 批量获取属性读取器
+     */
+    @SuppressWarnings("unchecked")
+    public Function<T, Object>[] getters(String... properties) {
+        final Function<T, Object>[] functions = new Function[properties.length];
+        for (int i = 0; i < properties.length; i++) {
+            functions[i] = getter(properties[i]);
+        }
+        return functions;
+    }
+
+    /**
+     * 读取属性值
+     */
+    public Object get(T bean, String property) {
+        return getter(property).apply(bean);
+    }
+
+    /**
+     * 写入属性值
+     */
+    public void set(T bean, String property, Object value) {
+        setter(property).accept(bean, value);
+    }
+
+    /**
+     * 本类及所有父类声明的字段 (包括static和final字段)，顺序和readAll/writeAll的数组下标一致
+     *
+     * @return 字段数组 (返回副本)
+     */
+    public Field[] getFields() {
+        return allFields().clone();
+    }
+
+    /**
+     * 读取全部字段值 (优先使用getter方法)
+     *
+     * @param bean 实例
+     * @return 与getFields()下标对应的值数组
+     */
+    public Object[] readAll(T bean) {
+        final Function<Object, Object>[] accessors = allGetters();
+        final Object[] values = new Object[accessors.length];
+        for (int i = 0; i < accessors.length; i++) {
+            values[i] = accessors[i].apply(bean);
+        }
+        return values;
+    }
+
+    /**
+     * 写入全部字段值 (优先使用setter方法)
+     * static和final字段不写入，values中对应下标的值被忽略，因此可以直接写回readAll的结果
+     *
+     * @param bean   实例
+     * @param values 与getFields()下标对应的值数组
+     */
+    public void writeAll(T bean, Object[] values) {
+        final Field[] fields = allFields();
+        if (values.length != fields.length) {
+            throw new IllegalArgumentException("values length " + values.length + " not equals field count " + fields.length);
+        }
+        for (int i = 0; i < fields.length; i++) {
+            if ((fields[i].getModifiers() & (Modifier.STATIC | Modifier.FINAL)) == 0) {
+                set(bean, fields[i].getName(), values[i]);
+            }
+        }
+    }
+
+    private Field[] allFields() {
+        Field[] fields = this.fields;
+        if (fields == null) {
+            final List<Field> list = new ArrayList<>();
+            for (Class<?> clazz = beanClass; clazz != null; clazz = clazz.getSuperclass()) {
+                list.addAll(Arrays.asList(clazz.getDeclaredFields()));
+            }
+            this.fields = fields = list.toArray(new Field[0]);
+        }
+        return fields;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Function<Object, Object>[] allGetters() {
+        Function<Object, Object>[] accessors = this.fieldAccessors;
+        if (accessors == null) {
+            final Field[] fields = allFields();
+            accessors = new Function[fields.length];
+            for (int i = 0; i < fields.length; i++) {
+                accessors[i] = resolve(getters, fields[i].getName(), p -> compileGetter(p, true));
+            }
+            this.fieldAccessors = accessors;
+        }
+        return accessors;
+    }
+
+    private static <A> A resolve(Map<String, A> cache, String property, Function<String, A> compiler) {
+        final A accessor = cache.get(property);
+        return accessor != null ? accessor : cache.computeIfAbsent(property, compiler);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <A> A cast(Object accessor) {
+        return (A) accessor;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Function<Object, Object> compileGetter(String property, boolean firstUseGetterMethod) {
+        final Field field = findField(property);
+        final Method method = firstUseGetterMethod ? findMethod(JavaBeanUtils.getGetterMethodName(property, field == null ? Object.class : field.getType()), 0) : null;
+        try {
+            if (method != null) {
+                final MethodHandle handle = unreflect(method);
+                try {
+                    return (Function<Object, Object>) metafactory(method, handle, Function.class, MethodType.methodType(Object.class, Object.class));
+                } catch (Throwable e) {
+                    // 目标模块没有向本模块开放时无法生成lambda，退回到MethodHandle
+                    return getterInvoker(handle);
+                }
+            }
+            if (field != null) {
+                field.trySetAccessible();
+                MethodHandle handle = LOOKUP.unreflectGetter(field);
+                if (Modifier.isStatic(field.getModifiers())) {
+                    handle = MethodHandles.dropArguments(handle, 0, Object.class);
+                }
+                return getterInvoker(handle);
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Can't access property \"" + property + "\" of " + beanClass.getName(), e);
+        }
+        throw new IllegalArgumentException("No property \"" + property + "\" in " + beanClass.getName());
+    }
+
+    @SuppressWarnings("unchecked")
+    private BiConsumer<Object, Object> compileSetter(String property, boolean firstUseSetterMethod) {
+        final Field field = findField(property);
+        final Method method = firstUseSetterMethod ? findMethod(JavaBeanUtils.getSetterMethodName(property), 1) : null;
+        try {
+            if (method != null) {
+                final MethodHandle handle = unreflect(method);
+                try {
+                    return (BiConsumer<Object, Object>) metafactory(method, handle, BiConsumer.class, MethodType.methodType(void.class, Object.class, Object.class));
+                } catch (Throwable e) {
+                    return setterInvoker(handle);
+                }
+            }
+            if (field != null) {
+                field.trySetAccessible();
+                MethodHandle handle = LOOKUP.unreflectSetter(field);
+                if (Modifier.isStatic(field.getModifiers())) {
+                    handle = MethodHandles.dropArguments(handle, 0, Object.class);
+                }
+                return setterInvoker(handle);
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Can't access property \"" + property + "\" of " + beanClass.getName(), e);
+        }
+        throw new IllegalArgumentException("No property \"" + property + "\" in " + beanClass.getName());
+    }
+
+    private static MethodHandle unreflect(Method method) throws IllegalAccessException {
+        method.trySetAccessible();
+        return LOOKUP.unreflect(method);
+    }
+
+    private Method findMethod(String name, int parameterCount) {
+        for (Class<?> clazz = beanClass; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+            for (Method method : clazz.getDeclaredMethods()) {
+                if (method.getName().equals(name) && method.getParameterCount() == parameterCount && !Modifier.isStatic(method.getModifiers())) {
+                    return method;
+                }
+            }
+        }
+        return null;
+    }
+
+    private Field findField(String property) {
+        for (Class<?> clazz = beanClass; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+            for (Field field : clazz.getDeclaredFields()) {
+                if (field.getName().equals(property)) {
+                    return field;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 用LambdaMetafactory把方法句柄编译成函数式接口实现，需要目标类所在包向本模块开放
+     */
+    private static Object metafactory(Method method, MethodHandle handle, Class<?> interfaceClass, MethodType interfaceType) throws Throwable {
+        final MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(method.getDeclaringClass(), LOOKUP);
+        final MethodType instantiatedType = interfaceType.returnType() == void.class
+                ? handle.type().wrap().changeReturnType(void.class)
+                : handle.type().wrap();
+        final CallSite site = LambdaMetafactory.metafactory(
+                lookup,
+                interfaceType.returnType() == void.class ? "accept" : "apply",
+                MethodType.methodType(interfaceClass),
+                interfaceType,
+                lookup.unreflect(method),
+                instantiatedType
+        );
+        return site.getTarget().invoke();
+    }
+
+    private static Function<Object, Object> getterInvoker(MethodHandle handle) {
+        final MethodHandle generic = handle.asType(MethodType.methodType(Object.class, Object.class));
+        return bean -> {
+            try {
+                return generic.invokeExact(bean);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new RuntimeException(e);
+            }
+        };
+    }
+
+    private static BiConsumer<Object, Object> setterInvoker(MethodHandle handle) {
+        final MethodHandle generic = handle.asType(MethodType.methodType(void.class, Object.class, Object.class));
+        return (bean, value) -> {
+            try {
+                generic.invokeExact(bean, value);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new RuntimeException(e);
+            }
+        };
+    }
+
+    /**
+     * 构造方法句柄和每列的转换器
+     */
+    private final class ConstructorBinding {
+
+        private final MethodHandle handle;
+
+        private final Function<String, Object>[] converters;
+
+        @SuppressWarnings("unchecked")
+        ConstructorBinding(int parameterCount) {
+            final Constructor<?> constructor = ArrayAdvice
+                    .getFirstMatch(beanClass.getConstructors(), parameterCount, Constructor::getParameterCount)
+                    .orElseThrow(() -> new IllegalArgumentException("No match constructor for parameter size: " + parameterCount));
+            final Class<?>[] parameterTypes = constructor.getParameterTypes();
+            converters = new Function[parameterCount];
+            for (int i = 0; i < parameterCount; i++) {
+                converters[i] = converter(parameterTypes[i]);
+            }
+            try {
+                handle = MethodHandles
+                        .publicLookup()
+                        .unreflectConstructor(constructor)
+                        .asSpreader(Object[].class, parameterCount)
+                        .asType(MethodType.methodType(Object.class, Object[].class));
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package develop.toolkit.base.components;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 预编译的正则匹配器
+ * 线程安全，适合作为常量持有，避免每次匹配都编译正则 (String.matches每次都会Pattern.compile)
+ *
+ * @author qiushui on 2026-10-17.
+ */
+@SuppressWarnings("unused")
+public final class CompiledMatcher {
+
+    private final Pattern pattern;
+
+    public CompiledMatcher(String regex) {
+        this(Pattern.compile(regex));
+    }
+
+    public CompiledMatcher(Pattern pattern) {
+        this.pattern = pattern;
+    }
+
+    public Pattern getPattern() {
+        return pattern;
+    }
+
+    /**
+     * 整个字符串匹配，等价于String.matches，null返回false
+     */
+    public boolean matches(String string) {
+        return string != null && pattern.matcher(string).matches();
+    }
+
+    /**
+     * 包含匹配的子串，null返回false
+     */
+    public boolean find(String string) {
+        return string != null && pattern.matcher(string).find();
+    }
+
+    /**
+     * 所有匹配的子串
+     */
+    public List<String> findAll(String string) {
+        Matcher matcher = pattern.matcher(string);
+        List<String> list = new ArrayList<>(matcher.groupCount());
+        while (matcher.find()) {
+            list.add(matcher.group());
+        }
+        return list;
+    }
+
+    public String replaceAll(String string, String replacement) {
+        return pattern.matcher(string).replaceAll(replacement);
+    }
+
+    @Override
+    public String toString() {
+        return pattern.pattern();
+    }
+}
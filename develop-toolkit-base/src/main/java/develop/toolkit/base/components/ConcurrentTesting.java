@@ -1,9 +1,9 @@
 package develop.toolkit.base.components;
 
 import develop.toolkit.base.struct.http.HttpClientReceiver;
+import develop.toolkit.base.utils.ExecutorAdvice;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.*;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
@@ -40,6 +40,27 @@ public final class ConcurrentTesting {
         this.interval = interval;
     }
 
+    /**
+     * @param service 执行触发的线程池，例如ExecutorAdvice.newVirtualThreadPerTaskExecutor()或有界线程池
+     */
+    public ConcurrentTesting(HttpClientHelper helper, ExecutorService service, int triggerCount, int cycleCount, int interval) {
+        this.helper = helper;
+        this.service = service;
+        this.triggerCount = triggerCount;
+        this.cycleCount = cycleCount;
+        this.interval = interval;
+    }
+
+    /**
+     * 每个触发一个虚拟线程 (JDK21+)，不支持虚拟线程时退回到triggerCount个平台线程的固定线程池
+     */
+    public static ConcurrentTesting ofVirtualThreads(HttpClientHelper helper, int triggerCount, int cycleCount, int interval) {
+        final ExecutorService service = ExecutorAdvice
+                .newVirtualThreadPerTaskExecutor()
+                .orElseGet(() -> Executors.newFixedThreadPool(triggerCount));
+        return new ConcurrentTesting(helper, service, triggerCount, cycleCount, interval);
+    }
+
     public void start(Function<HttpClientHelper, HttpClientReceiver<String>> function) {
         start(
                 function,
@@ -64,4 +85,27 @@ public final class ConcurrentTesting {
         }
         service.shutdown();
     }
+
+    /**
+     * 异步触发，不占用线程等待响应
+     * 每个触发内的多次循环依次进行，循环间隔通过延迟执行器实现
+     *
+     * @param function 使用sendAsync发送的函数
+     * @param consumer 响应处理
+     * @return 全部触发完成时完成
+     */
+    public CompletableFuture<Void> startAsync(Function<HttpClientHelper, CompletableFuture<HttpClientReceiver<String>>> function, Consumer<HttpClientReceiver<String>> consumer) {
+        final Executor delayed = interval > 0 ? CompletableFuture.delayedExecutor(interval, TimeUnit.MILLISECONDS, service) : service;
+        final CompletableFuture<?>[] futures = new CompletableFuture[triggerCount];
+        for (int i = 0; i < triggerCount; i++) {
+            CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
+            for (int j = 0; j < cycleCount; j++) {
+                chain = chain
+                        .thenComposeAsync(v -> function.apply(helper), delayed)
+                        .thenAccept(consumer);
+            }
+            futures[i] = chain;
+        }
+        return CompletableFuture.allOf(futures).whenComplete((v, e) -> service.shutdown());
+    }
 }
@@ -1,39 +1,50 @@
 package develop.toolkit.base.components;
 
+import develop.toolkit.base.struct.KeyValuePair;
 import develop.toolkit.base.struct.KeyValuePairs;
 
+import java.util.Comparator;
+import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * 计数器
+ * 每个键对应一个LongAdder分段计数单元，键已存在时累加不加锁也不产生装箱对象
  *
  * @author qiushui on 2020-03-25.
  */
 @SuppressWarnings("unused")
 public final class Counter<K> {
 
-    private final ConcurrentHashMap<K, Integer> map = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<K, LongAdder> map = new ConcurrentHashMap<>();
 
     /**
      * 加
      */
     public void add(K key, final int count) {
-        map.compute(key, (k, v) -> v == null ? count : (v + count));
+        cell(key).add(count);
     }
 
     /**
      * 加1
      */
     public void add(K key) {
-        add(key, 1);
+        cell(key).increment();
     }
 
     /**
      * 减
      */
     public void subtract(K key, final int count) {
-        map.compute(key, (k, v) -> (v == null || v == count) ? 0 : (v - count));
+        map.compute(key, (k, v) -> {
+            if (v == null) {
+                return new LongAdder();
+            }
+            v.add(-count);
+            return v;
+        });
     }
 
     /**
@@ -47,7 +58,23 @@ public final class Counter<K> {
      * 取值
      */
     public int get(K key) {
-        return map.getOrDefault(key, 0);
+        return (int) sum(key);
+    }
+
+    /**
+     * 取值 (long)
+     */
+    public long sum(K key) {
+        final LongAdder cell = map.get(key);
+        return cell == null ? 0L : cell.sum();
+    }
+
+    /**
+     * 取值并清零
+     */
+    public long sumThenReset(K key) {
+        final LongAdder cell = map.get(key);
+        return cell == null ? 0L : cell.sumThenReset();
     }
 
     /**
@@ -61,6 +88,47 @@ public final class Counter<K> {
      * 转化成KeyValuePairs
      */
     public KeyValuePairs<K, Integer> toKeyValuePairs() {
-        return KeyValuePairs.fromMap(map);
+        KeyValuePairs<K, Integer> keyValuePairs = new KeyValuePairs<>();
+        map.forEach((k, v) -> keyValuePairs.addKeyValue(k, v.intValue()));
+        return keyValuePairs;
+    }
+
+    /**
+     * 转化成KeyValuePairs (long快照)
+     */
+    public KeyValuePairs<K, Long> toLongKeyValuePairs() {
+        KeyValuePairs<K, Long> keyValuePairs = new KeyValuePairs<>();
+        map.forEach((k, v) -> keyValuePairs.addKeyValue(k, v.sum()));
+        return keyValuePairs;
+    }
+
+    /**
+     * 取值最大的前n个，按值从大到小排列
+     */
+    public KeyValuePairs<K, Long> top(int n) {
+        final KeyValuePairs<K, Long> keyValuePairs = new KeyValuePairs<>();
+        if (n <= 0) {
+            return keyValuePairs;
+        }
+        final Comparator<KeyValuePair<K, Long>> comparator = Comparator.comparingLong(KeyValuePair::getValue);
+        final PriorityQueue<KeyValuePair<K, Long>> heap = new PriorityQueue<>(n + 1, comparator);
+        map.forEach((k, v) -> {
+            final long value = v.sum();
+            if (heap.size() < n) {
+                heap.add(KeyValuePair.of(k, value));
+            } else if (heap.peek().getValue() < value) {
+                heap.poll();
+                heap.add(KeyValuePair.of(k, value));
+            }
+        });
+        while (!heap.isEmpty()) {
+            keyValuePairs.addFirst(heap.poll());
+        }
+        return keyValuePairs;
+    }
+
+    private LongAdder cell(K key) {
+        final LongAdder cell = map.get(key);
+        return cell != null ? cell : map.computeIfAbsent(key, k -> new LongAdder());
     }
 }
@@ -0,0 +1,149 @@
+package develop.toolkit.base.components;
+
+import develop.toolkit.base.struct.http.HttpBatchStats;
+import develop.toolkit.base.struct.http.HttpClientReceiver;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * 批量发送
+ * 基于sendAsync，同时进行的请求不超过parallelism；发送器在有空位时才从迭代器中取出，
+ * 结果回调执行完之后才会取下一个，回调慢时自然减慢发送 (背压)
+ * 设置了截止时间时，每个请求的deadline不超过剩余时间，截止后剩下的发送器不再发出
+ *
+ * @author qiushui on 2026-10-17.
+ */
+@Slf4j
+final class HttpClientBatch {
+
+    private final Iterator<HttpClientSender> iterator;
+
+    private final int parallelism;
+
+    private final long startNanos = System.nanoTime();
+
+    private final long deadlineNanos;
+
+    private final BiConsumer<Integer, HttpClientReceiver<String>> consumer;
+
+    private final HttpBatchStats stats = new HttpBatchStats();
+
+    private final CompletableFuture<HttpBatchStats> result = new CompletableFuture<>();
+
+    /**
+     * 进行中的请求数
+     */
+    private final AtomicInteger running = new AtomicInteger();
+
+    /**
+     * drain的重入计数，保证同一时刻只有一个线程在取发送器；同步完成的请求不会递归调用drain
+     */
+    private final AtomicInteger wip = new AtomicInteger();
+
+    /**
+     * 已取出的发送器数量 (只在drain中访问)
+     */
+    private int index;
+
+    HttpClientBatch(Iterator<HttpClientSender> iterator, int parallelism, Duration deadline, BiConsumer<Integer, HttpClientReceiver<String>> consumer) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be positive");
+        }
+        this.iterator = iterator;
+        this.parallelism = parallelism;
+        this.deadlineNanos = deadline == null ? Long.MAX_VALUE : startNanos + deadline.toNanos();
+        this.consumer = consumer;
+    }
+
+    CompletableFuture<HttpBatchStats> start() {
+        drain();
+        return result;
+    }
+
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        do {
+            while (!result.isDone() && running.get() < parallelism) {
+                final HttpClientSender sender;
+                try {
+                    if (!iterator.hasNext()) {
+                        break;
+                    }
+                    sender = iterator.next();
+                } catch (RuntimeException | Error e) {
+                    // 发送器来源出错时整批异常结束，已经发出的请求仍会回调consumer
+                    result.completeExceptionally(e);
+                    break;
+                }
+                final int i = index++;
+                final long remaining = deadlineNanos - System.nanoTime();
+                if (remaining <= 0) {
+                    stats.expired();
+                    accept(i, expiredReceiver());
+                    continue;
+                }
+                if (deadlineNanos != Long.MAX_VALUE && (sender.getDeadline() == null || sender.getDeadline().toNanos() > remaining)) {
+                    sender.deadline(Duration.ofNanos(remaining));
+                }
+                running.incrementAndGet();
+                CompletableFuture<HttpClientReceiver<String>> future;
+                try {
+                    future = sender.sendAsync();
+                } catch (RuntimeException | Error e) {
+                    // Error也要转成失败的结果，否则running不会减少，整批永远不结束
+                    future = CompletableFuture.failedFuture(e);
+                }
+                future.whenComplete((receiver, throwable) -> {
+                    final HttpClientReceiver<String> r = receiver != null ? receiver : failedReceiver(throwable);
+                    stats.record(r);
+                    accept(i, r);
+                    running.decrementAndGet();
+                    drain();
+                });
+            }
+            if (!result.isDone() && running.get() == 0 && !hasNext()) {
+                stats.finish(System.nanoTime() - startNanos);
+                result.complete(stats);
+            }
+        } while (wip.decrementAndGet() != 0);
+    }
+
+    private boolean hasNext() {
+        try {
+            return iterator.hasNext();
+        } catch (RuntimeException | Error e) {
+            result.completeExceptionally(e);
+            return true;
+        }
+    }
+
+    private void accept(int i, HttpClientReceiver<String> receiver) {
+        try {
+            consumer.accept(i, receiver);
+        } catch (RuntimeException e) {
+            log.warn("Batch consumer failed on #{}: {}", i, e.toString());
+        }
+    }
+
+    private static HttpClientReceiver<String> expiredReceiver() {
+        final HttpClientReceiver<String> receiver = new HttpClientReceiver<>();
+        receiver.setErrorMessage("Batch deadline exceeded, request not sent");
+        return receiver;
+    }
+
+    private static HttpClientReceiver<String> failedReceiver(Throwable throwable) {
+        final Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+        final HttpClientReceiver<String> receiver = new HttpClientReceiver<>();
+        receiver.setException(cause);
+        receiver.setErrorMessage(cause.toString());
+        return receiver;
+    }
+}
@@ -1,9 +1,10 @@
 package develop.toolkit.base.components;
 
-import develop.toolkit.base.struct.http.HttpClientGlobalOptions;
-import develop.toolkit.base.struct.http.HttpPostProcessor;
+import develop.toolkit.base.struct.http.*;
+import develop.toolkit.base.utils.ExecutorAdvice;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
 import javax.net.ssl.KeyManagerFactory;
 import javax.net.ssl.SSLContext;
@@ -14,14 +15,21 @@ import java.net.http.HttpClient;
 import java.security.KeyStore;
 import java.security.SecureRandom;
 import java.time.Duration;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiConsumer;
 
 /**
  * Http发送助手
  *
  * @author qiushui on 2020-09-10.
  */
+@Slf4j
 @SuppressWarnings("unused")
 @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
 public class HttpClientHelper {
@@ -38,10 +46,84 @@ public class HttpClientHelper {
         return builder().build();
     }
 
+    /**
+     * 实时统计
+     */
+    public HttpClientStats getStats() {
+        return options.stats;
+    }
+
+    /**
+     * 响应缓存，未配置时为null
+     */
+    public HttpResponseCache getResponseCache() {
+        return options.responseCache;
+    }
+
+    /**
+     * 相同请求合并，未开启时为null
+     */
+    public HttpSingleFlight getSingleFlight() {
+        return options.singleFlight;
+    }
+
+    public HttpClient.Version getVersion() {
+        return httpClient.version();
+    }
+
     public HttpClientSender request(String method, String url) {
         return new HttpClientSender(httpClient, method, url, options);
     }
 
+    /**
+     * 预备请求模板，常量、固定请求头和基础uri只解析一次，可在多个线程间共享
+     * url中的{name}是每次调用时替换的路径变量，{{key}}仍是常量
+     */
+    public HttpRequestTemplate prepare(String method, String urlTemplate) {
+        return new HttpRequestTemplate(httpClient, method, urlTemplate, options);
+    }
+
+    /**
+     * 批量发送，同时进行的请求不超过parallelism，全部完成后返回
+     *
+     * @param senders     发送器
+     * @param parallelism 并发数
+     * @return 与senders顺序一致的结果和汇总统计
+     */
+    public HttpBatchResult sendAll(Collection<HttpClientSender> senders, int parallelism) {
+        return sendAll(senders, parallelism, null);
+    }
+
+    /**
+     * 批量发送，整批不超过deadline，截止后没有发出的请求receiver.errorMessage为Batch deadline exceeded
+     * senders迭代时抛出异常则抛出CompletionException
+     */
+    public HttpBatchResult sendAll(Collection<HttpClientSender> senders, int parallelism, Duration deadline) {
+        final AtomicReferenceArray<HttpClientReceiver<String>> receivers = new AtomicReferenceArray<>(senders.size());
+        final HttpBatchStats stats = new HttpClientBatch(senders.iterator(), parallelism, deadline, receivers::set).start().join();
+        final List<HttpClientReceiver<String>> list = new ArrayList<>(receivers.length());
+        for (int i = 0; i < receivers.length(); i++) {
+            list.add(receivers.get(i));
+        }
+        return new HttpBatchResult(list, stats);
+    }
+
+    /**
+     * 流式批量发送，每个请求完成时回调consumer (参数为发送器序号和结果)
+     * 发送器按需从senders中取出，可以传入惰性生成的Iterable，内存占用与总数无关；
+     * consumer在请求完成的线程上执行，执行完才会发出下一个请求；
+     * senders迭代时抛出异常则不再发出新请求，返回的future以该异常完成
+     *
+     * @param senders     发送器
+     * @param parallelism 并发数
+     * @param deadline    整批截止时间，为null时不限制
+     * @param consumer    结果回调
+     * @return 全部完成后的汇总统计
+     */
+    public CompletableFuture<HttpBatchStats> sendAllStreaming(Iterable<HttpClientSender> senders, int parallelism, Duration deadline, BiConsumer<Integer, HttpClientReceiver<String>> consumer) {
+        return new HttpClientBatch(senders.iterator(), parallelism, deadline, consumer).start();
+    }
+
     public HttpClientSender get(String url) {
         return request("GET", url);
     }
@@ -68,6 +150,10 @@ public class HttpClientHelper {
 
         private Executor executor;
 
+        private HttpClient.Version version = HttpClient.Version.HTTP_1_1;
+
+        private final Map<String, String> clientProperties = new LinkedHashMap<>();
+
         private final HttpClientGlobalOptions globalOptions = new HttpClientGlobalOptions();
 
         public Builder onlyPrintFailed(boolean onlyPrintFailed) {
@@ -90,6 +176,163 @@ public class HttpClientHelper {
             return this;
         }
 
+        /**
+         * 协议版本，默认HTTP/1.1
+         * 选择HTTP/2时，https通过ALPN协商、http通过Upgrade协商，服务端不支持时自动回退到HTTP/1.1
+         */
+        public Builder version(HttpClient.Version version) {
+            this.version = version;
+            return this;
+        }
+
+        /**
+         * 空闲连接的保活时间 (jdk.httpclient.keepalive.timeout)
+         */
+        public Builder keepAliveTimeout(Duration keepAliveTimeout) {
+            return clientProperty("jdk.httpclient.keepalive.timeout", String.valueOf(keepAliveTimeout.getSeconds()));
+        }
+
+        /**
+         * HTTP/1.1连接池的最大空闲连接数，0表示不限制 (jdk.httpclient.connectionPoolSize)
+         */
+        public Builder connectionPoolSize(int connectionPoolSize) {
+            return clientProperty("jdk.httpclient.connectionPoolSize", String.valueOf(connectionPoolSize));
+        }
+
+        /**
+         * 其它jdk.httpclient.*属性，如 jdk.httpclient.windowsize、jdk.httpclient.maxframesize
+         * 注意：JDK在第一次创建HttpClient时读取这些系统属性并在整个JVM内共享，
+         * 因此只有在本进程第一个HttpClient创建之前build才会生效，也无法做到每个helper不同
+         */
+        public Builder clientProperty(String key, String value) {
+            if (!key.startsWith("jdk.httpclient.")) {
+                throw new IllegalArgumentException("client property must start with \"jdk.httpclient.\"");
+            }
+            clientProperties.put(key, value);
+            return this;
+        }
+
+        /**
+         * sendAsync使用有界线程池阻塞发送
+         * 同时进行的请求不超过threads，排队不超过queueCapacity，再多的请求按拒绝策略处理
+         * (AbortPolicy时sendAsync返回异常完成的future，CallerRunsPolicy时在调用线程上发送)
+         * 只支持这两种拒绝策略：丢弃任务的策略会使sendAsync返回的future永远不完成，已获取的限流许可和熔断探测名额也不会释放
+         */
+        public Builder boundedAsyncExecutor(int threads, int queueCapacity, RejectedExecutionHandler rejectedExecutionHandler) {
+            checkRejectedExecutionHandler(rejectedExecutionHandler);
+            globalOptions.asyncExecutor = ExecutorAdvice.newBoundedExecutor("HttpClientHelper-async", threads, queueCapacity, rejectedExecutionHandler);
+            return this;
+        }
+
+        /**
+         * sendAsync每个请求使用一个虚拟线程阻塞发送，HttpClient内部执行器也使用虚拟线程
+         * 运行时探测，JDK21以下不支持时保持HttpClient原生的非阻塞异步发送
+         */
+        public Builder virtualThreadAsyncExecutor() {
+            final Optional<ExecutorService> virtualThreadExecutor = ExecutorAdvice.newVirtualThreadPerTaskExecutor();
+            if (virtualThreadExecutor.isPresent()) {
+                globalOptions.asyncExecutor = virtualThreadExecutor.get();
+                if (executor == null) {
+                    executor = virtualThreadExecutor.get();
+                }
+            } else {
+                log.warn("Virtual threads are not supported on Java {}, falling back to the native async client", Runtime.version().feature());
+            }
+            return this;
+        }
+
+        /**
+         * sendAsync使用自定义执行器阻塞发送
+         * 执行器不能静默丢弃任务，是ThreadPoolExecutor时拒绝策略只能是AbortPolicy或CallerRunsPolicy
+         */
+        public Builder asyncExecutor(ExecutorService asyncExecutor) {
+            if (asyncExecutor instanceof ThreadPoolExecutor) {
+                checkRejectedExecutionHandler(((ThreadPoolExecutor) asyncExecutor).getRejectedExecutionHandler());
+            }
+            globalOptions.asyncExecutor = asyncExecutor;
+            return this;
+        }
+
+        private static void checkRejectedExecutionHandler(RejectedExecutionHandler rejectedExecutionHandler) {
+            if (!(rejectedExecutionHandler instanceof ThreadPoolExecutor.AbortPolicy) && !(rejectedExecutionHandler instanceof ThreadPoolExecutor.CallerRunsPolicy)) {
+                throw new IllegalArgumentException("Async executor must use AbortPolicy or CallerRunsPolicy, tasks dropped by " + rejectedExecutionHandler.getClass().getName() + " would never complete");
+            }
+        }
+
+        /**
+         * 全局限流器，可使用TokenBucketHttpRequestLimiter、ConcurrencyHttpRequestLimiter、AimdHttpRequestLimiter，
+         * 按主机分别限流时用PerHostHttpRequestLimiter包装
+         */
+        public Builder limiter(HttpRequestLimiter limiter) {
+            globalOptions.limiter = limiter;
+            return this;
+        }
+
+        /**
+         * 等待限流许可的最长时间，超过时请求不发出，receiver.isLimited()为true
+         */
+        public Builder limiterMaxWait(Duration limiterMaxWait) {
+            globalOptions.limiterMaxWait = limiterMaxWait;
+            return this;
+        }
+
+        /**
+         * GET请求的响应缓存
+         */
+        public Builder responseCache(HttpResponseCache responseCache) {
+            globalOptions.responseCache = responseCache;
+            return this;
+        }
+
+        /**
+         * 开启相同请求合并：方法(默认只合并幂等方法)、URI、请求头、请求体都相同的send()/sendAsync()同时进行时只发出一个请求，
+         * 每个调用方得到各自的receiver (isCoalesced()为true)
+         */
+        public Builder singleFlight() {
+            globalOptions.singleFlight = new HttpSingleFlight();
+            return this;
+        }
+
+        /**
+         * 使用自定义配置的相同请求合并，如 new HttpSingleFlight().nonIdempotent(true)
+         */
+        public Builder singleFlight(HttpSingleFlight singleFlight) {
+            globalOptions.singleFlight = singleFlight;
+            return this;
+        }
+
+        /**
+         * 全局熔断器，按主机分别统计和熔断；状态变化会通知到HttpPostProcessor.onCircuitStateChange
+         */
+        public Builder circuitBreaker(HttpCircuitBreaker circuitBreaker) {
+            globalOptions.circuitBreaker = circuitBreaker;
+            return this;
+        }
+
+        /**
+         * 全局重试策略
+         */
+        public Builder retryPolicy(HttpRetryPolicy retryPolicy) {
+            globalOptions.retryPolicy = retryPolicy;
+            return this;
+        }
+
+        /**
+         * 全局对冲策略
+         */
+        public Builder hedgePolicy(HttpHedgePolicy hedgePolicy) {
+            globalOptions.hedgePolicy = hedgePolicy;
+            return this;
+        }
+
+        /**
+         * 每个请求的整体截止时间，包括所有重试、对冲和退避等待
+         */
+        public Builder deadline(Duration deadline) {
+            globalOptions.deadline = deadline;
+            return this;
+        }
+
         public Builder readTimeout(Duration readTimeout) {
             globalOptions.readTimeout = readTimeout;
             return this;
@@ -126,8 +369,14 @@ public class HttpClientHelper {
         }
 
         public HttpClientHelper build() {
+            clientProperties.forEach((key, value) -> {
+                final String old = System.setProperty(key, value);
+                if (old != null && !old.equals(value)) {
+                    log.warn("HttpClient property \"{}\" changed from {} to {}, it may not take effect if any HttpClient has been created", key, old, value);
+                }
+            });
             final HttpClient.Builder builder = HttpClient.newBuilder()
-                    .version(HttpClient.Version.HTTP_1_1)
+                    .version(version)
                     .followRedirects(HttpClient.Redirect.NEVER)
                     .connectTimeout(connectTimeout);
             if (sslContext != null) {
@@ -3,21 +3,33 @@ package develop.toolkit.base.components;
 import develop.toolkit.base.struct.http.*;
 import develop.toolkit.base.utils.K;
 import develop.toolkit.base.utils.StringAdvice;
+import lombok.AccessLevel;
 import lombok.Getter;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.http.*;
-import java.nio.file.OpenOption;
-import java.nio.file.Path;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Http发送器
@@ -33,11 +45,17 @@ public final class HttpClientSender {
 
     private final String url;
 
-    private final Map<String, String> headers = new LinkedHashMap<>();
+    private final Map<String, String> headers;
 
-    private final Map<String, Object> parameters = new LinkedHashMap<>();
+    private final Map<String, Object> parameters;
 
-    private final List<HttpPostProcessor> postProcessors;
+    private List<HttpPostProcessor> postProcessors;
+
+    /**
+     * postProcessors是模板共享的只读列表，添加时先复制
+     */
+    @Getter(AccessLevel.NONE)
+    private boolean sharedPostProcessors;
 
     private Duration readTimeout;
 
@@ -51,16 +69,70 @@ public final class HttpClientSender {
 
     private URI uri;
 
+    /**
+     * uri由模板预先解析好，参数没有变化时不再拼接
+     */
+    @Getter(AccessLevel.NONE)
+    private boolean uriPrepared;
+
     private final HttpClientConstants constants;
 
+    private final HttpClientStats stats;
+
+    private final ExecutorService asyncExecutor;
+
+    private HttpRequestLimiter limiter;
+
+    private Duration limiterMaxWait;
+
+    private HttpResponseCache responseCache;
+
+    private HttpSingleFlight singleFlight;
+
+    private HttpCircuitBreaker circuitBreaker;
+
+    private HttpRetryPolicy retryPolicy;
+
+    private HttpHedgePolicy hedgePolicy;
+
+    private Duration deadline;
+
     protected HttpClientSender(HttpClient httpClient, String method, String url, HttpClientGlobalOptions options) {
-        this.httpClient = httpClient;
-        this.method = method;
+        this(httpClient, method, options.constants.replace(url), options, new LinkedHashMap<>(), new LinkedHashMap<>());
         this.readTimeout = options.readTimeout;
         this.postProcessors = new LinkedList<>(options.postProcessors);
+    }
+
+    /**
+     * 从预备请求模板创建，url和请求头已经替换过常量
+     */
+    HttpClientSender(HttpRequestTemplate template, String url, URI preparedUri) {
+        this(template.getHttpClient(), template.getMethod(), url, template.getOptions(), new LinkedHashMap<>(template.getHeaders()), new LinkedHashMap<>(template.getParameters()));
+        this.readTimeout = template.getReadTimeout();
+        this.postProcessors = template.getPostProcessors();
+        this.sharedPostProcessors = true;
+        this.uri = preparedUri;
+        this.uriPrepared = preparedUri != null;
+    }
+
+    private HttpClientSender(HttpClient httpClient, String method, String url, HttpClientGlobalOptions options, Map<String, String> headers, Map<String, Object> parameters) {
+        this.httpClient = httpClient;
+        this.method = method;
+        this.url = url;
+        this.headers = headers;
+        this.parameters = parameters;
         this.constants = options.constants;
+        this.stats = options.stats;
+        this.asyncExecutor = options.asyncExecutor;
+        this.limiter = options.limiter;
+        this.limiterMaxWait = options.limiterMaxWait;
+        this.responseCache = options.responseCache;
+        this.singleFlight = options.singleFlight;
+        this.circuitBreaker = options.circuitBreaker;
+        this.retryPolicy = options.retryPolicy;
+        this.hedgePolicy = options.hedgePolicy;
+        this.deadline = options.deadline;
         this.onlyPrintFailed = options.onlyPrintFailed;
-        this.url = constants.replace(url);
     }
 
     public HttpClientSender header(String header, String value) {
@@ -87,11 +159,13 @@ public final class HttpClientSender {
 
     public HttpClientSender parameter(String parameter, Object value) {
         this.parameters.put(parameter, value);
+        this.uriPrepared = false;
         return this;
     }
 
     public HttpClientSender parameters(Map<String, Object> parameterMap) {
         if (parameterMap != null) {
+            this.uriPrepared = false;
             parameterMap.forEach((k, v) -> {
                 if (v instanceof String) {
                     this.parameters.put(k, constants.replace((String) v));
@@ -118,7 +192,74 @@ public final class HttpClientSender {
         return this;
     }
 
+    /**
+     * 本次请求使用的限流器，覆盖全局配置，为null时不限流
+     */
+    public HttpClientSender limiter(HttpRequestLimiter limiter) {
+        this.limiter = limiter;
+        return this;
+    }
+
+    public HttpClientSender limiterMaxWait(Duration limiterMaxWait) {
+        this.limiterMaxWait = limiterMaxWait;
+        return this;
+    }
+
+    /**
+     * 本次请求的响应缓存，覆盖全局配置，为null时不使用缓存
+     */
+    public HttpClientSender responseCache(HttpResponseCache responseCache) {
+        this.responseCache = responseCache;
+        return this;
+    }
+
+    /**
+     * 本次请求是否参与相同请求合并 (需要全局开启)
+     */
+    public HttpClientSender singleFlight(boolean enabled) {
+        if (!enabled) {
+            this.singleFlight = null;
+        }
+        return this;
+    }
+
+    /**
+     * 本次请求的熔断器，覆盖全局配置，为null时不熔断
+     */
+    public HttpClientSender circuitBreaker(HttpCircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+        return this;
+    }
+
+    /**
+     * 本次请求的重试策略，覆盖全局配置，为null时不重试
+     */
+    public HttpClientSender retryPolicy(HttpRetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+        return this;
+    }
+
+    /**
+     * 本次请求的对冲策略，覆盖全局配置，为null时不对冲
+     */
+    public HttpClientSender hedgePolicy(HttpHedgePolicy hedgePolicy) {
+        this.hedgePolicy = hedgePolicy;
+        return this;
+    }
+
+    /**
+     * 整体截止时间，包括所有重试、对冲和退避等待
+     */
+    public HttpClientSender deadline(Duration deadline) {
+        this.deadline = deadline;
+        return this;
+    }
+
     public HttpClientSender addPostProcessor(HttpPostProcessor postProcessor) {
+        if (sharedPostProcessors) {
+            postProcessors = new LinkedList<>(postProcessors);
+            sharedPostProcessors = false;
+        }
         postProcessors.add(postProcessor);
         return this;
     }
@@ -159,102 +300,850 @@ public final class HttpClientSender {
     }
 
     public void download(Path path, OpenOption... openOptions) {
-        send(HttpResponse.BodyHandlers::ofByteArray).ifSuccess(r -> r.save(path, openOptions));
+        final HttpClientReceiver<InputStream> receiver = send(HttpResponse.BodyHandlers::ofInputStream);
+        if (receiver.isSuccess()) {
+            receiver.save(path, openOptions);
+        } else if (receiver.getBody() != null) {
+            try {
+                receiver.getBody().close();
+            } catch (IOException ignored) {
+                // 失败响应的流直接丢弃
+            }
+        }
+    }
+
+    /**
+     * 流式下载到文件
+     * 响应体直接写入同目录下的 .part 临时文件，全部写完(并通过校验)后原子重命名为目标文件，内存占用与文件大小无关
+     * 开启续传时，已存在的 .part 文件会带上If-Range通过Range请求从断点继续下载；
+     * 没有记录ETag/Last-Modified、资源已变化、服务端不支持Range或返回的范围不对时从头下载
+     *
+     * @param path    目标文件
+     * @param options 下载选项
+     * @return receiver，成功时body为目标文件；临时文件已经完整时httpStatus为416、isAlreadyComplete()为true，body同样为目标文件
+     */
+    public HttpClientReceiver<Path> download(Path path, DownloadOptions options) {
+        final Path partFile = path.resolveSibling(path.getFileName() + ".part");
+        final Path validatorFile = FileDownloadSenderHandler.validatorFile(partFile);
+        long resumeFrom = 0;
+        try {
+            final String validator = options.isResume() && Files.exists(partFile) ? FileDownloadSenderHandler.readValidator(partFile) : null;
+            if (validator != null) {
+                resumeFrom = Files.size(partFile);
+                if (resumeFrom > 0) {
+                    headers.put("Range", "bytes=" + resumeFrom + "-");
+                    headers.put("If-Range", validator);
+                }
+            } else {
+                Files.deleteIfExists(partFile);
+                Files.deleteIfExists(validatorFile);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        // 所有尝试都写同一个临时文件，不能重试或对冲，也不能使用缓存；失败后再次download即可续传
+        this.retryPolicy = null;
+        this.hedgePolicy = null;
+        this.responseCache = null;
+        FileDownloadSenderHandler handler = new FileDownloadSenderHandler(partFile, resumeFrom, options.getProgressListener());
+        HttpClientReceiver<Path> receiver = send(handler);
+        if (handler.isRangeMismatch()) {
+            // 返回的范围接不上已下载的部分，丢弃临时文件从头下载
+            headers.remove("Range");
+            headers.remove("If-Range");
+            try {
+                Files.deleteIfExists(partFile);
+                Files.deleteIfExists(validatorFile);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            handler = new FileDownloadSenderHandler(partFile, 0L, options.getProgressListener());
+            receiver = send(handler);
+        }
+        receiver.setAlreadyComplete(handler.isAlreadyComplete());
+        if (!receiver.isSuccess() && !receiver.isAlreadyComplete()) {
+            receiver.setBody(null);
+            return receiver;
+        }
+        try {
+            if (options.getChecksumAlgorithm() != null) {
+                final String actual = checksum(partFile, options.getChecksumAlgorithm());
+                if (!actual.equalsIgnoreCase(options.getExpectedChecksum())) {
+                    Files.deleteIfExists(partFile);
+                    Files.deleteIfExists(validatorFile);
+                    receiver.setBody(null);
+                    receiver.setErrorMessage(String.format("Checksum mismatch: expected %s but was %s", options.getExpectedChecksum(), actual));
+                    return receiver;
+                }
+            }
+            try {
+                Files.move(partFile, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(partFile, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+            Files.deleteIfExists(validatorFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        receiver.setBody(path);
+        return receiver;
     }
 
     public HttpClientReceiver<String> send() {
-        return send(new StringBodySenderHandler());
+        final HttpSingleFlight.Flight flight = beginFlight();
+        if (flight == null) {
+            return send(new StringBodySenderHandler());
+        }
+        if (!flight.isLeader()) {
+            return follow(flight).join();
+        }
+        try {
+            final HttpClientReceiver<String> receiver = send(new StringBodySenderHandler());
+            flight.complete(receiver, null);
+            return receiver;
+        } catch (RuntimeException | Error e) {
+            flight.complete(null, e);
+            throw e;
+        }
     }
 
     public CompletableFuture<HttpClientReceiver<String>> sendAsync() {
-        return sendAsync(new StringBodySenderHandler());
+        final HttpSingleFlight.Flight flight = beginFlight();
+        if (flight == null) {
+            return sendAsync(new StringBodySenderHandler());
+        }
+        if (!flight.isLeader()) {
+            return follow(flight);
+        }
+        // 构建请求可能同步抛出异常(如受限的请求头)，此时也要结束flight，否则相同的请求会一直等待
+        final CompletableFuture<HttpClientReceiver<String>> future;
+        try {
+            future = sendAsync(new StringBodySenderHandler());
+        } catch (RuntimeException | Error e) {
+            flight.complete(null, e);
+            throw e;
+        }
+        return future.whenComplete(flight::complete);
     }
 
     /**
      * 核心发送逻辑
+     * 配置了重试策略时按退避等待后重试，配置了对冲策略时并发发出对冲请求；总耗时不超过deadline
      *
      * @param senderHandler 发送器扩展逻辑
      * @param <BODY>        响应内容
      * @return receiver
      */
     public <BODY> HttpClientReceiver<BODY> send(SenderHandler<BODY> senderHandler) {
-        this.uri = URI.create(url + StringAdvice.urlParametersFormat(parameters, true));
+        final Execution execution = new Execution();
+        if (execution.isCacheHit()) {
+            return finish(cachedReceiver(senderHandler, execution.cacheEntry).join(), execution);
+        }
+        if (execution.cacheKey != null) {
+            senderHandler = cachingSenderHandler(senderHandler, execution);
+        }
+        HttpClientReceiver<BODY> receiver;
+        for (int attempt = 1; ; attempt++) {
+            if (execution.hedging) {
+                try {
+                    receiver = hedgeAsync(senderHandler, execution).join();
+                } catch (CompletionException e) {
+                    // 所有请求都没有结果 (如执行器拒绝)
+                    receiver = new HttpClientReceiver<>();
+                    receiver.setErrorMessage(e.getCause().getMessage());
+                    receiver.setException(e.getCause());
+                }
+            } else {
+                receiver = attempt(senderHandler, execution);
+                execution.record(receiver, false);
+            }
+            final long delay = execution.retryDelay(receiver, attempt);
+            if (delay < 0) {
+                break;
+            }
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            discard(receiver);
+        }
+        return finish(receiver, execution);
+    }
+
+    /**
+     * 核心发送逻辑（异步）
+     * 配置了重试策略时按退避等待后重试，配置了对冲策略时并发发出对冲请求；总耗时不超过deadline
+     *
+     * @param senderHandler 发送器扩展逻辑
+     * @param <BODY>        响应内容
+     * @return completableFuture
+     */
+    public <BODY> CompletableFuture<HttpClientReceiver<BODY>> sendAsync(SenderHandler<BODY> senderHandler) {
+        final Execution execution = new Execution();
+        if (execution.isCacheHit()) {
+            return cachedReceiver(senderHandler, execution.cacheEntry).thenApply(receiver -> finish(receiver, execution));
+        }
+        final SenderHandler<BODY> handler = execution.cacheKey != null ? cachingSenderHandler(senderHandler, execution) : senderHandler;
+        return attemptsAsync(handler, execution, 1).thenApply(receiver -> finish(receiver, execution));
+    }
+
+    private <BODY> CompletableFuture<HttpClientReceiver<BODY>> attemptsAsync(SenderHandler<BODY> senderHandler, Execution execution, int attempt) {
+        final CompletableFuture<HttpClientReceiver<BODY>> future = execution.hedging
+                ? hedgeAsync(senderHandler, execution)
+                : attemptAsync(senderHandler, execution).thenApply(receiver -> {
+                    execution.record(receiver, false);
+                    return receiver;
+                });
+        return future.thenCompose(receiver -> {
+            final long delay = execution.retryDelay(receiver, attempt);
+            if (delay < 0) {
+                return CompletableFuture.completedFuture(receiver);
+            }
+            discard(receiver);
+            return CompletableFuture
+                    .supplyAsync(() -> null, CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS))
+                    .thenCompose(v -> attemptsAsync(senderHandler, execution, attempt + 1));
+        });
+    }
+
+    /**
+     * 发出原请求，之后每隔对冲延迟发出一个对冲请求，第一个不需要重试的结果胜出
+     */
+    private <BODY> CompletableFuture<HttpClientReceiver<BODY>> hedgeAsync(SenderHandler<BODY> senderHandler, Execution execution) {
+        final int maxHedges = hedgePolicy.getMaxHedges();
+        final Hedge<BODY> hedge = new Hedge<>(execution, 1 + maxHedges);
+        hedge.launch(senderHandler, false);
+        final long delay = hedgePolicy.delayMillis();
+        for (int i = 1; i <= maxHedges; i++) {
+            CompletableFuture
+                    .delayedExecutor(delay * i, TimeUnit.MILLISECONDS)
+                    .execute(() -> {
+                        if (hedge.result.isDone() || execution.isExpired()) {
+                            hedge.onComplete(null, null, false);
+                        } else {
+                            stats.hedged();
+                            hedge.launch(senderHandler, true);
+                        }
+                    });
+        }
+        return hedge.result;
+    }
+
+    /**
+     * 单次尝试：获取限流许可后发送
+     */
+    private <BODY> HttpClientReceiver<BODY> attempt(SenderHandler<BODY> senderHandler, Execution execution) {
+        HttpRequest request = buildRequest(senderHandler, execution);
+        final HttpCircuitBreaker circuitBreaker = this.circuitBreaker;
+        if (circuitBreaker != null && !circuitBreaker.tryAcquire(uri, this::publishCircuitStateChange)) {
+            return circuitOpenReceiver();
+        }
+        final HttpRequestLimiter limiter = this.limiter;
+        if (limiter != null) {
+            boolean acquired;
+            try {
+                acquired = limiter.acquire(uri, execution.limiterWait()).join();
+            } catch (CompletionException e) {
+                acquired = false;
+            }
+            if (!acquired) {
+                if (circuitBreaker != null) {
+                    circuitBreaker.release(uri);
+                }
+                return limitedReceiver();
+            }
+            if (execution.hasDeadline()) {
+                // 等待许可用掉了一部分剩余时间，按新的剩余时间重新设置超时
+                request = buildRequest(senderHandler, execution);
+            }
+        }
+        return execute(request, senderHandler, limiter, circuitBreaker);
+    }
+
+    /**
+     * 单次尝试（异步）：获取限流许可后发送
+     */
+    private <BODY> CompletableFuture<HttpClientReceiver<BODY>> attemptAsync(SenderHandler<BODY> senderHandler, Execution execution) {
+        final HttpRequest built = buildRequest(senderHandler, execution);
+        final HttpCircuitBreaker circuitBreaker = this.circuitBreaker;
+        if (circuitBreaker != null && !circuitBreaker.tryAcquire(uri, this::publishCircuitStateChange)) {
+            return CompletableFuture.completedFuture(circuitOpenReceiver());
+        }
+        final HttpRequestLimiter limiter = this.limiter;
+        // 异步等待限流许可，不占用线程
+        final CompletableFuture<Boolean> permit = limiter == null
+                ? CompletableFuture.completedFuture(true)
+                : limiter.acquire(uri, execution.limiterWait()).exceptionally(e -> false);
+        return permit.thenCompose(acquired -> {
+            if (!acquired) {
+                if (circuitBreaker != null) {
+                    circuitBreaker.release(uri);
+                }
+                return CompletableFuture.completedFuture(limitedReceiver());
+            }
+            // 等待许可用掉了一部分剩余时间，按新的剩余时间重新设置超时
+            final HttpRequest request = limiter != null && execution.hasDeadline() ? buildRequest(senderHandler, execution) : built;
+            if (asyncExecutor == null) {
+                return executeAsync(request, senderHandler, limiter, circuitBreaker);
+            }
+            // 在配置的执行器上阻塞发送 (虚拟线程或有界线程池)，执行器拒绝时返回异常完成的future
+            try {
+                return CompletableFuture.supplyAsync(() -> execute(request, senderHandler, limiter, circuitBreaker), asyncExecutor);
+            } catch (RejectedExecutionException e) {
+                if (limiter != null) {
+                    limiter.release(uri, rejectedReceiver(e));
+                }
+                if (circuitBreaker != null) {
+                    circuitBreaker.release(uri);
+                }
+                return CompletableFuture.failedFuture(e);
+            }
+        });
+    }
+
+    private HttpRequest buildRequest(SenderHandler<?> senderHandler, Execution execution) {
         final HttpRequest.Builder builder = HttpRequest
                 .newBuilder()
                 .version(httpClient.version())
                 .uri(uri);
         headers.forEach(builder::header);
+        execution.conditionalHeaders.forEach(builder::header);
         final HttpRequest request = builder
                 .method(method, senderHandler.bodyPublisher(requestBody))
-                .timeout(readTimeout)
+                .timeout(execution.attemptTimeout())
                 .build();
         requestStringBody = HttpRequestBody.bodyToString(requestBody);
+        return request;
+    }
+
+    private <BODY> HttpClientReceiver<BODY> execute(HttpRequest request, SenderHandler<BODY> senderHandler, HttpRequestLimiter limiter, HttpCircuitBreaker circuitBreaker) {
         final HttpClientReceiver<BODY> receiver = new HttpClientReceiver<>();
         Instant start = Instant.now();
+        final long startNanos = stats.requestStarted();
         try {
-            HttpResponse<BODY> response = httpClient.send(request, senderHandler.bodyHandler());
+            HttpResponse<BODY> response = httpClient.send(request, statsBodyHandler(senderHandler.bodyHandler(), startNanos));
             receiver.setHttpStatus(response.statusCode());
             receiver.setHeaders(response.headers().map());
             receiver.setBody(response.body());
         } catch (HttpConnectTimeoutException e) {
             receiver.setConnectTimeout(true);
+            receiver.setException(e);
         } catch (HttpTimeoutException e) {
             receiver.setReadTimeout(true);
+            receiver.setException(e);
         } catch (InterruptedException | IOException e) {
             e.printStackTrace();
             receiver.setErrorMessage(e.getMessage());
+            receiver.setException(e);
+        } catch (RuntimeException e) {
+            receiver.setErrorMessage(e.getMessage());
+            receiver.setException(e);
         } finally {
+            stats.requestFinished();
             receiver.setCostTime(start.until(Instant.now(), ChronoUnit.MILLIS));
-            doPostProcessors(receiver);
+            if (limiter != null) {
+                limiter.release(uri, receiver);
+            }
+            if (circuitBreaker != null) {
+                circuitBreaker.onResult(uri, receiver, this::publishCircuitStateChange);
+            }
         }
         return receiver;
     }
 
-    /**
-     * 核心发送逻辑（异步）
-     *
-     * @param senderHandler 发送器扩展逻辑
-     * @param <BODY>        响应内容
-     * @return completableFuture
-     */
-    public <BODY> CompletableFuture<HttpClientReceiver<BODY>> sendAsync(SenderHandler<BODY> senderHandler) {
-        this.uri = URI.create(url + StringAdvice.urlParametersFormat(parameters, true));
-        final HttpRequest.Builder builder = HttpRequest
-                .newBuilder()
-                .version(httpClient.version())
-                .uri(uri);
-        headers.forEach(builder::header);
-        final HttpRequest request = builder
-                .method(method, senderHandler.bodyPublisher(requestBody))
-                .timeout(readTimeout)
-                .build();
-        requestStringBody = HttpRequestBody.bodyToString(requestBody);
+    private <BODY> CompletableFuture<HttpClientReceiver<BODY>> executeAsync(HttpRequest request, SenderHandler<BODY> senderHandler, HttpRequestLimiter limiter, HttpCircuitBreaker circuitBreaker) {
         final Instant start = Instant.now();
+        final long startNanos = stats.requestStarted();
         return httpClient
-                .sendAsync(request, senderHandler.bodyHandler())
+                .sendAsync(request, statsBodyHandler(senderHandler.bodyHandler(), startNanos))
                 .handle((response, e) -> {
+                    stats.requestFinished();
                     final HttpClientReceiver<BODY> receiver = new HttpClientReceiver<>();
+                    if (e instanceof CompletionException && e.getCause() != null) {
+                        e = e.getCause();
+                    }
                     if (e == null) {
                         receiver.setHttpStatus(response.statusCode());
                         receiver.setHeaders(response.headers().map());
                         receiver.setBody(response.body());
                     } else if (e instanceof HttpConnectTimeoutException) {
                         receiver.setConnectTimeout(true);
+                        receiver.setException(e);
                     } else if (e instanceof HttpTimeoutException) {
                         receiver.setReadTimeout(true);
-                    } else if (e instanceof InterruptedException || e instanceof IOException) {
-                        e.printStackTrace();
+                        receiver.setException(e);
+                    } else {
+                        if (e instanceof InterruptedException || e instanceof IOException) {
+                            e.printStackTrace();
+                        }
                         receiver.setErrorMessage(e.getMessage());
+                        receiver.setException(e);
                     }
                     receiver.setCostTime(start.until(Instant.now(), ChronoUnit.MILLIS));
-                    doPostProcessors(receiver);
+                    if (limiter != null) {
+                        limiter.release(uri, receiver);
+                    }
+                    if (circuitBreaker != null) {
+                        circuitBreaker.onResult(uri, receiver, this::publishCircuitStateChange);
+                    }
+                    return receiver;
+                });
+    }
+
+    /**
+     * 开启了请求合并时开始一次请求，不合并时返回null
+     */
+    private HttpSingleFlight.Flight beginFlight() {
+        if (singleFlight == null) {
+            return null;
+        }
+        resolveUri();
+        final String key = singleFlight.key(method, uri, headers, requestBody);
+        return key == null ? null : singleFlight.begin(key);
+    }
+
+    /**
+     * 拼接参数得到最终uri，模板预先解析好且参数没有变化时直接使用
+     */
+    private void resolveUri() {
+        if (!uriPrepared) {
+            uri = URI.create(url + StringAdvice.urlParametersFormat(parameters, true));
+        }
+    }
+
+    /**
+     * 被合并的调用方等待leader的结果，最多等到自己的deadline (没有设置时为readTimeout)，超时返回超时的结果
+     */
+    private CompletableFuture<HttpClientReceiver<String>> follow(HttpSingleFlight.Flight flight) {
+        final Duration wait = deadline != null ? deadline : readTimeout;
+        if (wait == null) {
+            return flight.getFuture().thenApply(this::coalescedReceiver);
+        }
+        final long startNanos = System.nanoTime();
+        // 在副本上设置超时，不影响leader和其他follower共享的future
+        return flight
+                .getFuture()
+                .copy()
+                .orTimeout(wait.toNanos(), TimeUnit.NANOSECONDS)
+                .handle((leaderReceiver, e) -> {
+                    if (e == null) {
+                        return coalescedReceiver(leaderReceiver);
+                    }
+                    if (e instanceof TimeoutException) {
+                        return coalescedTimeoutReceiver(startNanos);
+                    }
+                    throw e instanceof CompletionException ? (CompletionException) e : new CompletionException(e);
+                });
+    }
+
+    /**
+     * 等待leader超时的结果
+     */
+    private HttpClientReceiver<String> coalescedTimeoutReceiver(long startNanos) {
+        final HttpClientReceiver<String> receiver = new HttpClientReceiver<>();
+        receiver.setReadTimeout(true);
+        receiver.setCoalesced(true);
+        receiver.setException(new HttpTimeoutException("Timed out waiting for the coalesced request"));
+        receiver.setCostTime(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        requestStringBody = HttpRequestBody.bodyToString(requestBody);
+        doPostProcessors(receiver);
+        return receiver;
+    }
+
+    /**
+     * 被合并的调用方得到自己的一份结果，并执行自己的后置处理
+     */
+    private HttpClientReceiver<String> coalescedReceiver(HttpClientReceiver<String> leaderReceiver) {
+        final HttpClientReceiver<String> receiver = leaderReceiver.copy();
+        receiver.setCoalesced(true);
+        requestStringBody = HttpRequestBody.bodyToString(requestBody);
+        doPostProcessors(receiver);
+        return receiver;
+    }
+
+    /**
+     * 缓存新鲜时直接由缓存构造结果
+     */
+    private <BODY> CompletableFuture<HttpClientReceiver<BODY>> cachedReceiver(SenderHandler<BODY> senderHandler, HttpCacheEntry entry) {
+        return entry
+                .body(senderHandler.bodyHandler())
+                .thenApply(body -> {
+                    final HttpClientReceiver<BODY> receiver = new HttpClientReceiver<>();
+                    receiver.setHttpStatus(entry.getHttpStatus());
+                    receiver.setHeaders(entry.getHeaders().map());
+                    receiver.setBody(body);
+                    receiver.setCacheStatus(HttpCacheStatus.HIT);
                     return receiver;
                 });
     }
 
+    /**
+     * 包装发送器扩展：304时用缓存的响应体，可缓存的响应读完后存入缓存
+     */
+    private <BODY> SenderHandler<BODY> cachingSenderHandler(SenderHandler<BODY> senderHandler, Execution execution) {
+        return new SenderHandler<>() {
+
+            @Override
+            public HttpRequest.BodyPublisher bodyPublisher(HttpRequestBody<?> requestBody) {
+                return senderHandler.bodyPublisher(requestBody);
+            }
+
+            @Override
+            public HttpResponse.BodyHandler<BODY> bodyHandler() {
+                final HttpResponse.BodyHandler<BODY> bodyHandler = senderHandler.bodyHandler();
+                return responseInfo -> {
+                    if (responseInfo.statusCode() == 304 && execution.cacheEntry != null) {
+                        final HttpCacheEntry entry = responseCache.revalidated(execution.cacheEntry, responseInfo.headers());
+                        execution.revalidatedEntry = entry;
+                        final CompletableFuture<BODY> cachedBody = entry.body(bodyHandler);
+                        return HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.discarding(), v -> cachedBody.join());
+                    }
+                    return responseCache.store(execution.cacheKey, headers, responseInfo, bodyHandler.apply(responseInfo));
+                };
+            }
+        };
+    }
+
+    /**
+     * 最终结果：记录所有尝试、总耗时、缓存命中情况，执行后置处理
+     */
+    private <BODY> HttpClientReceiver<BODY> finish(HttpClientReceiver<BODY> receiver, Execution execution) {
+        if (execution.cacheKey != null) {
+            if (receiver.getCacheStatus() == null) {
+                final HttpCacheEntry entry = execution.revalidatedEntry;
+                if (entry != null && receiver.getHttpStatus() == 304) {
+                    receiver.setHttpStatus(entry.getHttpStatus());
+                    receiver.setHeaders(entry.getHeaders().map());
+                    receiver.setCacheStatus(HttpCacheStatus.REVALIDATED);
+                } else {
+                    receiver.setCacheStatus(HttpCacheStatus.MISS);
+                }
+            }
+            responseCache.record(receiver.getCacheStatus());
+        } else if (responseCache != null && !"GET".equalsIgnoreCase(method) && receiver.getHttpStatus() >= 200 && receiver.getHttpStatus() < 400) {
+            responseCache.invalidate(uri);
+        }
+        receiver.setAttempts(execution.getAttempts());
+        receiver.setCostTime(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - execution.startNanos));
+        doPostProcessors(receiver);
+        return receiver;
+    }
+
+    /**
+     * 被限流器拒绝的结果
+     */
+    private <BODY> HttpClientReceiver<BODY> limitedReceiver() {
+        final HttpClientReceiver<BODY> receiver = new HttpClientReceiver<>();
+        receiver.setLimited(true);
+        return receiver;
+    }
+
+    /**
+     * 熔断器打开时的结果
+     */
+    private <BODY> HttpClientReceiver<BODY> circuitOpenReceiver() {
+        final HttpClientReceiver<BODY> receiver = new HttpClientReceiver<>();
+        receiver.setCircuitOpen(true);
+        return receiver;
+    }
+
+    /**
+     * 执行器拒绝时反馈给限流器的结果
+     */
+    private static HttpClientReceiver<?> rejectedReceiver(RejectedExecutionException e) {
+        final HttpClientReceiver<?> receiver = new HttpClientReceiver<>();
+        receiver.setErrorMessage(e.getMessage());
+        receiver.setException(e);
+        return receiver;
+    }
+
+    /**
+     * 丢弃不再使用的结果，关闭流式响应体
+     */
+    private static void discard(HttpClientReceiver<?> receiver) {
+        if (receiver != null && receiver.getBody() instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) receiver.getBody()).close();
+            } catch (Exception ignored) {
+                // 丢弃的结果不关心关闭异常
+            }
+        }
+    }
+
+    /**
+     * 收到响应头时记录协议版本和耗时
+     */
+    private <BODY> HttpResponse.BodyHandler<BODY> statsBodyHandler(HttpResponse.BodyHandler<BODY> bodyHandler, long startNanos) {
+        return responseInfo -> {
+            stats.headersReceived(responseInfo.version(), startNanos);
+            return bodyHandler.apply(responseInfo);
+        };
+    }
+
+    private static String checksum(Path path, String algorithm) throws IOException {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalArgumentException(e);
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        final StringBuilder sb = new StringBuilder();
+        for (byte b : digest.digest()) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
     private <BODY> void doPostProcessors(HttpClientReceiver<BODY> receiver) {
         for (HttpPostProcessor postProcessor : postProcessors) {
             postProcessor.process(this, receiver);
         }
     }
+
+    private void publishCircuitStateChange(HttpCircuitStateChange change) {
+        for (HttpPostProcessor postProcessor : postProcessors) {
+            postProcessor.onCircuitStateChange(this, change);
+        }
+    }
+
+    private static boolean isIdempotent(String method) {
+        switch (method.toUpperCase()) {
+            case "GET":
+            case "HEAD":
+            case "PUT":
+            case "DELETE":
+            case "OPTIONS":
+            case "TRACE":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * 一次send/sendAsync的执行上下文：截止时间和所有尝试
+     */
+    private final class Execution {
+
+        private final long startNanos = System.nanoTime();
+
+        private final long deadlineNanos;
+
+        private final boolean retrying;
+
+        private final boolean hedging;
+
+        private final List<HttpClientAttempt> attempts = new ArrayList<>();
+
+        /**
+         * 缓存键，不使用缓存时为null
+         */
+        private final String cacheKey;
+
+        /**
+         * 查到的缓存条目 (新鲜的，或者有验证器可以发条件请求的)
+         */
+        private final HttpCacheEntry cacheEntry;
+
+        private final boolean cacheFresh;
+
+        /**
+         * 缓存条目需要验证时本次执行附加的条件请求头，只加在构建的请求上，不写入发送器的headers
+         */
+        private final Map<String, String> conditionalHeaders = new LinkedHashMap<>();
+
+        /**
+         * 条件请求返回304后更新的缓存条目
+         */
+        private volatile HttpCacheEntry revalidatedEntry;
+
+        Execution() {
+            resolveUri();
+            this.deadlineNanos = deadline == null ? Long.MAX_VALUE : startNanos + deadline.toNanos();
+            if (responseCache != null && responseCache.isCacheable(method, headers)) {
+                this.cacheKey = responseCache.key(method, uri, headers);
+                final HttpCacheEntry entry = responseCache.lookup(cacheKey, headers);
+                if (entry == null) {
+                    this.cacheEntry = null;
+                    this.cacheFresh = false;
+                } else if (!responseCache.requiresRevalidation(entry, headers)) {
+                    this.cacheEntry = entry;
+                    this.cacheFresh = true;
+                } else if (entry.hasValidator()) {
+                    this.cacheEntry = entry;
+                    this.cacheFresh = false;
+                    if (entry.getETag() != null && !headers.containsKey("If-None-Match")) {
+                        conditionalHeaders.put("If-None-Match", entry.getETag());
+                    }
+                    if (entry.getLastModified() != null && !headers.containsKey("If-Modified-Since")) {
+                        conditionalHeaders.put("If-Modified-Since", entry.getLastModified());
+                    }
+                } else {
+                    this.cacheEntry = null;
+                    this.cacheFresh = false;
+                }
+            } else {
+                this.cacheKey = null;
+                this.cacheEntry = null;
+                this.cacheFresh = false;
+            }
+            final boolean idempotent = isIdempotent(method);
+            this.retrying = retryPolicy != null && (idempotent || retryPolicy.isNonIdempotent());
+            this.hedging = hedgePolicy != null && (idempotent || hedgePolicy.isNonIdempotent());
+        }
+
+        boolean isCacheHit() {
+            return cacheFresh;
+        }
+
+        boolean isExpired() {
+            return System.nanoTime() - deadlineNanos >= 0;
+        }
+
+        boolean hasDeadline() {
+            return deadlineNanos != Long.MAX_VALUE;
+        }
+
+        /**
+         * 等待限流许可的最长时间，不超过limiterMaxWait和剩余时间，都没有设置时为null (一直等待)
+         */
+        Duration limiterWait() {
+            if (deadlineNanos == Long.MAX_VALUE) {
+                return limiterMaxWait;
+            }
+            final long remaining = Math.max(0L, deadlineNanos - System.nanoTime());
+            // limiterMaxWait为null表示一直等待，此时只受剩余时间限制
+            return limiterMaxWait == null || remaining < limiterMaxWait.toNanos() ? Duration.ofNanos(remaining) : limiterMaxWait;
+        }
+
+        /**
+         * 本次尝试的超时时间，不超过readTimeout和剩余时间
+         */
+        Duration attemptTimeout() {
+            if (deadlineNanos == Long.MAX_VALUE) {
+                return readTimeout;
+            }
+            final long remaining = Math.max(TimeUnit.MILLISECONDS.toNanos(1L), deadlineNanos - System.nanoTime());
+            return remaining < readTimeout.toNanos() ? Duration.ofNanos(remaining) : readTimeout;
+        }
+
+        boolean shouldRetry(HttpClientReceiver<?> receiver) {
+            return (retryPolicy != null ? retryPolicy.getRetryOn() : HttpRetryPolicy.DEFAULT_RETRY_ON).test(receiver);
+        }
+
+        /**
+         * 第attempt次尝试之后是否重试
+         *
+         * @return 退避等待的毫秒数，不重试时为-1
+         */
+        long retryDelay(HttpClientReceiver<?> receiver, int attempt) {
+            if (!retrying || attempt >= retryPolicy.getMaxAttempts() || !shouldRetry(receiver)) {
+                return -1L;
+            }
+            final long delay = retryPolicy.backoffMillis(attempt);
+            if (System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay) - deadlineNanos >= 0) {
+                return -1L;
+            }
+            stats.retried();
+            return delay;
+        }
+
+        synchronized void record(HttpClientReceiver<?> receiver, boolean hedge) {
+            attempts.add(new HttpClientAttempt(attempts.size() + 1, hedge, receiver));
+            if (hedgePolicy != null && receiver.isSuccess()) {
+                hedgePolicy.recordLatency(receiver.getCostTime());
+            }
+        }
+
+        synchronized List<HttpClientAttempt> getAttempts() {
+            return List.copyOf(attempts);
+        }
+    }
+
+    /**
+     * 一轮对冲：原请求和对冲请求中第一个不需要重试的结果胜出，都需要重试时取最后一个结果
+     */
+    private final class Hedge<BODY> {
+
+        private final CompletableFuture<HttpClientReceiver<BODY>> result = new CompletableFuture<>();
+
+        private final Execution execution;
+
+        /**
+         * 还没有结束的请求数 (包括还没到时间发出的对冲请求)
+         */
+        private int outstanding;
+
+        private boolean decided;
+
+        private HttpClientReceiver<BODY> last;
+
+        private Throwable failure;
+
+        Hedge(Execution execution, int outstanding) {
+            this.execution = execution;
+            this.outstanding = outstanding;
+        }
+
+        void launch(SenderHandler<BODY> senderHandler, boolean hedge) {
+            attemptAsync(senderHandler, execution).whenComplete((receiver, e) -> onComplete(receiver, e, hedge));
+        }
+
+        /**
+         * 一个请求结束，或者一个对冲请求不再发出 (receiver和e都为null)
+         */
+        void onComplete(HttpClientReceiver<BODY> receiver, Throwable e, boolean hedge) {
+            HttpClientReceiver<BODY> discarded = null;
+            HttpClientReceiver<BODY> winner = null;
+            Throwable error = null;
+            boolean decidedNow = false;
+            synchronized (this) {
+                outstanding--;
+                if (receiver != null) {
+                    execution.record(receiver, hedge);
+                }
+                if (decided) {
+                    discarded = receiver;
+                } else if (receiver != null && !execution.shouldRetry(receiver)) {
+                    decided = decidedNow = true;
+                    winner = receiver;
+                    discarded = last;
+                } else {
+                    if (receiver != null) {
+                        discarded = last;
+                        last = receiver;
+                    } else if (e != null && failure == null) {
+                        failure = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    }
+                    if (outstanding == 0) {
+                        decided = decidedNow = true;
+                        winner = last;
+                        error = failure;
+                    }
+                }
+            }
+            discard(discarded);
+            if (!decidedNow) {
+                return;
+            }
+            if (winner != null) {
+                if (hedge && winner == receiver) {
+                    stats.hedgeWon();
+                }
+                result.complete(winner);
+            } else {
+                result.completeExceptionally(error);
+            }
+        }
+    }
 }
@@ -0,0 +1,210 @@
+package develop.toolkit.base.components;
+
+import develop.toolkit.base.struct.http.HttpClientGlobalOptions;
+import develop.toolkit.base.struct.http.HttpPostProcessor;
+import develop.toolkit.base.utils.StringAdvice;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * 预备请求模板
+ * 常量、固定请求头、固定参数和基础uri在配置时解析一次，每次调用只替换路径变量{name}，再按需设置查询参数和请求体；
+ * 配置方法以写时复制的方式更新，配置完成后可以在多个线程间共享，每次sender()得到独立的HttpClientSender
+ *
+ * <pre>
+ * HttpRequestTemplate template = helper.prepare("GET", "{{host}}/users/{id}/orders").header("Authorization", "{{token}}");
+ * template.sender(1001).parameter("page", 1).send();
+ * </pre>
+ *
+ * @author qiushui on 2026-10-17.
+ */
+@Getter
+@SuppressWarnings("unused")
+public final class HttpRequestTemplate {
+
+    private final HttpClient httpClient;
+
+    private final HttpClientGlobalOptions options;
+
+    private final String method;
+
+    /**
+     * 替换常量后的url模板
+     */
+    private final String url;
+
+    /**
+     * url按路径变量拆分后的字面量片段，比变量多一个
+     */
+    @Getter(AccessLevel.NONE)
+    private final String[] literals;
+
+    /**
+     * 路径变量名，按出现顺序
+     */
+    private final List<String> pathVariables;
+
+    private volatile Map<String, String> headers = Collections.emptyMap();
+
+    private volatile Map<String, Object> parameters = Collections.emptyMap();
+
+    private volatile List<HttpPostProcessor> postProcessors;
+
+    private volatile Duration readTimeout;
+
+    /**
+     * 没有路径变量时预先拼好的uri
+     */
+    @Getter(AccessLevel.NONE)
+    private volatile URI preparedUri;
+
+    HttpRequestTemplate(HttpClient httpClient, String method, String url, HttpClientGlobalOptions options) {
+        this.httpClient = httpClient;
+        this.options = options;
+        this.method = method;
+        this.url = options.constants.replace(url);
+        this.readTimeout = options.readTimeout;
+        this.postProcessors = List.copyOf(options.postProcessors);
+        final List<String> literalList = new ArrayList<>();
+        final List<String> variableList = new ArrayList<>();
+        int from = 0;
+        int open;
+        while ((open = this.url.indexOf('{', from)) >= 0) {
+            final int close = this.url.indexOf('}', open + 1);
+            if (close < 0) {
+                break;
+            }
+            literalList.add(this.url.substring(from, open));
+            variableList.add(this.url.substring(open + 1, close));
+            from = close + 1;
+        }
+        literalList.add(this.url.substring(from));
+        this.literals = literalList.toArray(new String[0]);
+        this.pathVariables = List.copyOf(variableList);
+        this.preparedUri = prepareUri();
+    }
+
+    public synchronized HttpRequestTemplate header(String header, String value) {
+        final Map<String, String> map = new LinkedHashMap<>(headers);
+        map.put(header, options.constants.replace(value));
+        this.headers = Collections.unmodifiableMap(map);
+        return this;
+    }
+
+    public synchronized HttpRequestTemplate headers(Map<String, String> customHeaders) {
+        if (customHeaders != null) {
+            final Map<String, String> map = new LinkedHashMap<>(headers);
+            customHeaders.forEach((k, v) -> map.put(k, options.constants.replace(v)));
+            this.headers = Collections.unmodifiableMap(map);
+        }
+        return this;
+    }
+
+    public HttpRequestTemplate headerAuthorization(String value) {
+        return header("Authorization", value);
+    }
+
+    public HttpRequestTemplate headerContentType(String contentType) {
+        return header("Content-Type", contentType);
+    }
+
+    /**
+     * 每次请求都带的固定参数
+     */
+    public synchronized HttpRequestTemplate parameter(String parameter, Object value) {
+        final Map<String, Object> map = new LinkedHashMap<>(parameters);
+        map.put(parameter, value instanceof String ? options.constants.replace((String) value) : value);
+        this.parameters = Collections.unmodifiableMap(map);
+        this.preparedUri = prepareUri();
+        return this;
+    }
+
+    public synchronized HttpRequestTemplate readTimeout(Duration readTimeout) {
+        this.readTimeout = readTimeout;
+        return this;
+    }
+
+    public synchronized HttpRequestTemplate addPostProcessor(HttpPostProcessor postProcessor) {
+        final List<HttpPostProcessor> list = new ArrayList<>(postProcessors);
+        list.add(postProcessor);
+        this.postProcessors = Collections.unmodifiableList(list);
+        return this;
+    }
+
+    /**
+     * 没有路径变量的模板创建发送器
+     */
+    public HttpClientSender sender() {
+        if (!pathVariables.isEmpty()) {
+            throw new IllegalStateException("Template \"" + url + "\" requires path variables " + pathVariables);
+        }
+        return new HttpClientSender(this, url, preparedUri);
+    }
+
+    /**
+     * 按路径变量出现的顺序依次替换后创建发送器
+     */
+    public HttpClientSender sender(Object... pathValues) {
+        if (pathValues.length != pathVariables.size()) {
+            throw new IllegalArgumentException("Template \"" + url + "\" requires " + pathVariables.size() + " path variables but got " + pathValues.length);
+        }
+        if (pathValues.length == 0) {
+            return sender();
+        }
+        final StringBuilder sb = new StringBuilder(url.length() + pathValues.length * 16);
+        for (int i = 0; i < pathValues.length; i++) {
+            sb.append(literals[i]);
+            appendPathValue(sb, pathVariables.get(i), pathValues[i]);
+        }
+        sb.append(literals[pathValues.length]);
+        return new HttpClientSender(this, sb.toString(), null);
+    }
+
+    /**
+     * 按路径变量名替换后创建发送器
+     */
+    public HttpClientSender sender(Map<String, ?> pathValues) {
+        if (pathVariables.isEmpty()) {
+            return sender();
+        }
+        final StringBuilder sb = new StringBuilder(url.length() + pathVariables.size() * 16);
+        for (int i = 0; i < pathVariables.size(); i++) {
+            final String name = pathVariables.get(i);
+            sb.append(literals[i]);
+            appendPathValue(sb, name, pathValues.get(name));
+        }
+        sb.append(literals[pathVariables.size()]);
+        return new HttpClientSender(this, sb.toString(), null);
+    }
+
+    private URI prepareUri() {
+        return !pathVariables.isEmpty() ? null : URI.create(url + StringAdvice.urlParametersFormat(parameters, true));
+    }
+
+    /**
+     * 路径变量值按路径段编码，空格编码为%20
+     */
+    private static void appendPathValue(StringBuilder sb, String name, Object value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Path variable \"" + name + "\" is null");
+        }
+        final int start = sb.length();
+        StringAdvice.urlEncode(sb, value.toString());
+        for (int i = start; i < sb.length(); i++) {
+            if (sb.charAt(i) == '+') {
+                sb.replace(i, i + 1, "%20");
+                i += 2;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return method + " " + url;
+    }
+}
@@ -0,0 +1,252 @@
+package develop.toolkit.base.components;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 预生成ID缓冲区
+ * 后台线程从SnowflakeIdWorker批量取号填充到环形long数组里，消费者通过CAS取号，不加锁
+ * 缓冲区耗尽时直接从SnowflakeIdWorker取号，所以缓冲区取出的ID只保证唯一，不保证跨调用严格递增
+ *
+ * @author qiushui on 2026-10-17.
+ */
+@Slf4j
+@SuppressWarnings("unused")
+public final class IdBuffer implements AutoCloseable {
+
+    /**
+     * 单次从SnowflakeIdWorker批量取号的最大数量
+     */
+    private static final int MAX_REFILL_BATCH = 4096;
+
+    /**
+     * 后台线程最长休眠时间，兜底丢失的唤醒
+     */
+    private static final long PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10L);
+
+    private final SnowflakeIdWorker worker;
+
+    private final long[] ring;
+
+    private final int mask;
+
+    /**
+     * 剩余数量低于该值时唤醒后台线程补充
+     */
+    private final int refillThreshold;
+
+    /**
+     * 消费位置 (多消费者CAS推进)
+     */
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * 生产位置 (只有后台线程写入，volatile写发布ring中的数据)
+     */
+    private volatile long tail;
+
+    /**
+     * 请求补充的时间 (nanoTime)，0表示没有待处理的请求；请求标记和时间放在同一个变量里，后台线程取到的时间总是对应这次请求
+     */
+    private final AtomicLong refillRequestNanos = new AtomicLong();
+
+    private volatile boolean running = true;
+
+    private final Thread refillThread;
+
+    /**
+     * 缓冲区耗尽而直接从SnowflakeIdWorker取号的次数
+     */
+    private final LongAdder exhaustedCount = new LongAdder();
+
+    /**
+     * 补充次数
+     */
+    @Getter
+    private volatile long refillCount;
+
+    /**
+     * 最近一次补充延迟 (从请求补充到填满的纳秒数)
+     */
+    @Getter
+    private volatile long lastRefillLagNanos;
+
+    /**
+     * 最大补充延迟 (纳秒)
+     */
+    @Getter
+    private volatile long maxRefillLagNanos;
+
+    public IdBuffer(SnowflakeIdWorker worker, int capacity) {
+        this(worker, capacity, capacity / 2);
+    }
+
+    /**
+     * @param worker          ID生成器
+     * @param capacity        容量，向上取整为2的幂
+     * @param refillThreshold 剩余数量低于该值时开始补充
+     */
+    public IdBuffer(SnowflakeIdWorker worker, int capacity, int refillThreshold) {
+        if (capacity < 2 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("capacity must be between 2 and 2^30");
+        }
+        if (refillThreshold < 0 || refillThreshold >= capacity) {
+            throw new IllegalArgumentException("refill threshold must be between 0 and capacity");
+        }
+        final int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.worker = worker;
+        this.ring = new long[size];
+        this.mask = size - 1;
+        this.refillThreshold = refillThreshold;
+        fill();
+        this.refillThread = new Thread(this::refillLoop, "IdBuffer-refill");
+        this.refillThread.setDaemon(true);
+        this.refillThread.start();
+    }
+
+    /**
+     * 取一个ID
+     *
+     * @return SnowflakeId
+     */
+    public long nextId() {
+        while (true) {
+            final long h = head.get();
+            final long available = tail - h;
+            if (available <= 0) {
+                exhaustedCount.increment();
+                requestRefill();
+                return worker.nextId();
+            }
+            // 必须在CAS之前读取，CAS成功说明该位置在读取时还没有被后台线程覆盖
+            final long id = ring[(int) (h & mask)];
+            if (head.compareAndSet(h, h + 1)) {
+                if (available - 1 < refillThreshold) {
+                    requestRefill();
+                }
+                return id;
+            }
+        }
+    }
+
+    /**
+     * 批量取ID，缓冲区不足的部分直接从SnowflakeIdWorker批量取号
+     *
+     * @param n 数量
+     * @return ID数组
+     */
+    public long[] nextIds(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("n can't be less than 0");
+        }
+        final long[] ids = new long[n];
+        int filled = 0;
+        while (filled < n) {
+            final long h = head.get();
+            final int count = (int) Math.min(n - filled, tail - h);
+            if (count <= 0) {
+                exhaustedCount.increment();
+                requestRefill();
+                final long[] rest = worker.nextIds(n - filled);
+                System.arraycopy(rest, 0, ids, filled, rest.length);
+                return ids;
+            }
+            final long[] taken = new long[count];
+            for (int i = 0; i < count; i++) {
+                taken[i] = ring[(int) ((h + i) & mask)];
+            }
+            if (head.compareAndSet(h, h + count)) {
+                System.arraycopy(taken, 0, ids, filled, count);
+                filled += count;
+            }
+        }
+        if (tail - head.get() < refillThreshold) {
+            requestRefill();
+        }
+        return ids;
+    }
+
+    /**
+     * 当前缓冲区剩余数量
+     */
+    public int available() {
+        return (int) Math.max(0L, tail - head.get());
+    }
+
+    /**
+     * 容量
+     */
+    public int capacity() {
+        return ring.length;
+    }
+
+    /**
+     * 缓冲区耗尽次数
+     */
+    public long getExhaustedCount() {
+        return exhaustedCount.sum();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(refillThread);
+    }
+
+    private void requestRefill() {
+        if (refillRequestNanos.get() != 0L) {
+            return;
+        }
+        final long now = System.nanoTime();
+        if (refillRequestNanos.compareAndSet(0L, now == 0L ? 1L : now)) {
+            LockSupport.unpark(refillThread);
+        }
+    }
+
+    private void refillLoop() {
+        while (running) {
+            final long requestNanos = refillRequestNanos.getAndSet(0L);
+            try {
+                if (fill() && requestNanos != 0L) {
+                    final long lag = System.nanoTime() - requestNanos;
+                    lastRefillLagNanos = lag;
+                    if (lag > maxRefillLagNanos) {
+                        maxRefillLagNanos = lag;
+                    }
+                }
+            } catch (RuntimeException e) {
+                log.warn("IdBuffer refill failed: {}", e.getMessage());
+            }
+            LockSupport.parkNanos(this, PARK_NANOS);
+        }
+    }
+
+    /**
+     * 填满缓冲区
+     *
+     * @return 是否有补充
+     */
+    private boolean fill() {
+        long t = tail;
+        long free = ring.length - (t - head.get());
+        if (free <= 0) {
+            return false;
+        }
+        while (free > 0 && running) {
+            final long[] ids = worker.nextIds((int) Math.min(free, MAX_REFILL_BATCH));
+            for (int i = 0; i < ids.length; i++) {
+                ring[(int) ((t + i) & mask)] = ids[i];
+            }
+            t += ids.length;
+            tail = t;
+            free = ring.length - (t - head.get());
+        }
+        refillCount++;
+        return true;
+    }
+}
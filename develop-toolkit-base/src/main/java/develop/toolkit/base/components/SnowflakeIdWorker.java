@@ -1,63 +1,139 @@
 package develop.toolkit.base.components;
 
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
 import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 雪花算法ID生成器
+ * 时间戳和毫秒内序列打包在同一个AtomicLong里，通过CAS推进，不加锁
  *
  * @author qiushui on 2021-08-05.
  */
 public class SnowflakeIdWorker {
 
     /**
-     * 机器id所占的位数
+     * 默认开始时间截 (2020-01-01)
      */
-    private final long workerIdBits = 5L;
+    public static final long DEFAULT_TWEPOCH = 1577808000000L;
 
     /**
-     * 数据标识id所占的位数
+     * 工作机器ID
      */
-    private final long datacenterIdBits = 5L;
+    @Getter
+    private final long workerId;
 
     /**
-     * 工作机器ID(0~31)
+     * 数据中心ID
      */
-    private final long workerId;
+    @Getter
+    private final long datacenterId;
 
     /**
-     * 数据中心ID(0~31)
+     * 开始时间截
      */
-    private final long datacenterId;
+    @Getter
+    private final long twepoch;
+
+    /**
+     * 序列在id中占的位数
+     */
+    private final long sequenceBits;
+
+    /**
+     * 生成序列的掩码，默认为4095 (0b111111111111=0xfff=4095)
+     */
+    private final long sequenceMask;
+
+    /**
+     * 工作机器ID的掩码
+     */
+    private final long workerIdMask;
+
+    /**
+     * 数据中心ID的掩码
+     */
+    private final long datacenterIdMask;
+
+    /**
+     * 数据标识id左移位数，默认17位(12+5)
+     */
+    private final long datacenterIdShift;
+
+    /**
+     * 时间截左移位数，默认22位(5+5+12)
+     */
+    private final long timestampLeftShift;
+
+    /**
+     * 时间戳可表示的最大毫秒数
+     */
+    private final long maxTimestamp;
+
+    /**
+     * 时钟回退或序列耗尽时最多可以借用的未来毫秒数，0表示不借用
+     */
+    @Getter
+    private final long maxBorrowMillis;
 
     /**
-     * 毫秒内序列(0~4095)
+     * 数据中心ID和工作机器ID移位后的固定部分
      */
-    private long sequence = 0L;
+    private final long nodeBits;
 
     /**
-     * 上次生成ID的时间截
+     * 上次生成ID的状态 (相对开始时间截的毫秒数 << sequenceBits | 毫秒内序列)
      */
-    private long lastTimestamp = -1L;
+    private final AtomicLong state = new AtomicLong();
 
     /**
-     * 构造函数
+     * 构造函数 (默认5/5/12位布局，开始时间截2020-01-01，不借用时间)
      *
      * @param workerId     工作ID (0~31)
      * @param datacenterId 数据中心ID (0~31)
      */
     public SnowflakeIdWorker(long workerId, long datacenterId) {
-        // 支持的最大机器id，结果是31 (这个移位算法可以很快的计算出几位二进制数所能表示的最大十进制数)
-        long maxWorkerId = ~(-1L << workerIdBits);
-        if (workerId > maxWorkerId || workerId < 0) {
-            throw new IllegalArgumentException(String.format("worker Id can't be greater than %d or less than 0", maxWorkerId));
+        this(workerId, datacenterId, 5L, 5L, 12L, DEFAULT_TWEPOCH, 0L);
+    }
+
+    private SnowflakeIdWorker(long workerId, long datacenterId, long workerIdBits, long datacenterIdBits, long sequenceBits, long twepoch, long maxBorrowMillis) {
+        if (workerIdBits < 0 || datacenterIdBits < 0 || sequenceBits < 1) {
+            throw new IllegalArgumentException("bits can't be less than 0 and sequence bits can't be less than 1");
+        }
+        if (workerIdBits + datacenterIdBits + sequenceBits > 31) {
+            throw new IllegalArgumentException("worker, datacenter and sequence bits can't be greater than 31 in total");
+        }
+        if (maxBorrowMillis < 0) {
+            throw new IllegalArgumentException("max borrow millis can't be less than 0");
         }
-        // 支持的最大数据标识id，结果是31
-        long maxDatacenterId = ~(-1L << datacenterIdBits);
-        if (datacenterId > maxDatacenterId || datacenterId < 0) {
-            throw new IllegalArgumentException(String.format("datacenter Id can't be greater than %d or less than 0", maxDatacenterId));
+        // 支持的最大机器id，默认是31 (这个移位算法可以很快的计算出几位二进制数所能表示的最大十进制数)
+        this.workerIdMask = ~(-1L << workerIdBits);
+        if (workerId > workerIdMask || workerId < 0) {
+            throw new IllegalArgumentException(String.format("worker Id can't be greater than %d or less than 0", workerIdMask));
+        }
+        // 支持的最大数据标识id，默认是31
+        this.datacenterIdMask = ~(-1L << datacenterIdBits);
+        if (datacenterId > datacenterIdMask || datacenterId < 0) {
+            throw new IllegalArgumentException(String.format("datacenter Id can't be greater than %d or less than 0", datacenterIdMask));
         }
         this.workerId = workerId;
         this.datacenterId = datacenterId;
+        this.twepoch = twepoch;
+        this.maxBorrowMillis = maxBorrowMillis;
+        this.sequenceBits = sequenceBits;
+        this.sequenceMask = ~(-1L << sequenceBits);
+        this.datacenterIdShift = sequenceBits + workerIdBits;
+        this.timestampLeftShift = sequenceBits + workerIdBits + datacenterIdBits;
+        this.maxTimestamp = ~(-1L << (63 - timestampLeftShift));
+        this.nodeBits = (datacenterId << datacenterIdShift) | (workerId << sequenceBits);
+    }
+
+    public static Builder builder() {
+        return new Builder();
     }
 
     /**
@@ -65,64 +141,198 @@ public class SnowflakeIdWorker {
      *
      * @return SnowflakeId
      */
-    public synchronized long nextId() {
-        long timestamp = timeGen();
-        // 如果当前时间小于上一次ID生成的时间戳，说明系统时钟回退过这个时候应当抛出异常
-        if (timestamp < lastTimestamp) {
-            throw new RuntimeException(
-                    String.format("Clock moved backwards.  Refusing to generate id for %d milliseconds", lastTimestamp - timestamp));
-        }
-        // 如果是同一时间生成的，则进行毫秒内序列
-        // 序列在id中占的位数
-        long sequenceBits = 12L;
-        if (lastTimestamp == timestamp) {
-            // 生成序列的掩码，这里为4095 (0b111111111111=0xfff=4095)
-            long sequenceMask = ~(-1L << sequenceBits);
-            sequence = (sequence + 1) & sequenceMask;
-            // 毫秒内序列溢出
-            if (sequence == 0) {
-                // 阻塞到下一个毫秒,获得新的时间戳
-                timestamp = tilNextMillis(lastTimestamp);
+    public long nextId() {
+        while (true) {
+            final long current = state.get();
+            final long next = nextState(current, timeGen());
+            if (next >= 0 && state.compareAndSet(current, next)) {
+                return compose(next);
+            }
+            // 毫秒内序列溢出且不能再借用，等待下一个毫秒
+            if (next < 0) {
+                Thread.onSpinWait();
             }
         }
-        // 时间戳改变，毫秒内序列重置
-        else {
-            sequence = 0L;
-        }
-
-        // 上次生成ID的时间截
-        lastTimestamp = timestamp;
-        long datacenterIdShift = sequenceBits + workerIdBits;
-        // 时间截向左移22位(5+5+12)
-        long timestampLeftShift = sequenceBits + workerIdBits + datacenterIdBits;
-        // 开始时间截 (2020-01-01)
-        long twepoch = 1577808000000L;
-        return ((timestamp - twepoch) << timestampLeftShift)
-                | (datacenterId << datacenterIdShift)
-                | (workerId << sequenceBits)
-                | sequence;
     }
 
     /**
-     * 阻塞到下一个毫秒，直到获得新的时间戳
+     * 批量获得ID (该方法是线程安全的)
+     * 一次CAS预留当前毫秒内剩余的一整段序列，减少高并发下的竞争
+     *
+     * @param n 数量
+     * @return 递增的SnowflakeId数组
+     */
+    public long[] nextIds(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("n can't be less than 0");
+        }
+        final long[] ids = new long[n];
+        int filled = 0;
+        while (filled < n) {
+            final long current = state.get();
+            final long first = nextState(current, timeGen());
+            if (first < 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            // 本毫秒内还可用的序列数量
+            final int count = (int) Math.min(n - filled, sequenceMask - (first & sequenceMask) + 1);
+            if (state.compareAndSet(current, first + count - 1)) {
+                for (int i = 0; i < count; i++) {
+                    ids[filled++] = compose(first + i);
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * 把ID拆解成各个组成部分
      *
-     * @param lastTimestamp 上次生成ID的时间截
-     * @return 当前时间戳
+     * @param id 由相同位布局和开始时间截生成的ID
+     * @return 组成部分
      */
-    private long tilNextMillis(long lastTimestamp) {
-        long timestamp = timeGen();
-        while (timestamp <= lastTimestamp) {
-            timestamp = timeGen();
+    public IdParts decode(long id) {
+        return new IdParts(
+                (id >>> timestampLeftShift) + twepoch,
+                (id >>> datacenterIdShift) & datacenterIdMask,
+                (id >>> sequenceBits) & workerIdMask,
+                id & sequenceMask
+        );
+    }
+
+    /**
+     * 计算下一个状态
+     *
+     * @param current   当前状态
+     * @param timestamp 当前时间戳
+     * @return 下一个状态，毫秒内序列溢出且不能借用时返回-1
+     */
+    private long nextState(long current, long timestamp) {
+        final long lastTimestamp = current >>> sequenceBits;
+        final long elapsed = timestamp - twepoch;
+        // 时间戳改变，毫秒内序列重置
+        if (elapsed > lastTimestamp) {
+            if (elapsed > maxTimestamp) {
+                throw new IllegalStateException("Timestamp bits exhausted, please choose a later twepoch or more timestamp bits");
+            }
+            return elapsed << sequenceBits;
+        }
+        // 时钟回退超过可借用的范围，这个时候应当抛出异常
+        if (lastTimestamp - elapsed > maxBorrowMillis) {
+            throw new RuntimeException(
+                    String.format("Clock moved backwards.  Refusing to generate id for %d milliseconds", lastTimestamp - elapsed));
         }
-        return timestamp;
+        // 同一毫秒内(或借用中的毫秒内)，进行毫秒内序列
+        if ((current & sequenceMask) != sequenceMask) {
+            return current + 1;
+        }
+        // 毫秒内序列溢出，在允许范围内借用下一个毫秒
+        if (lastTimestamp + 1 - elapsed <= maxBorrowMillis) {
+            return (lastTimestamp + 1) << sequenceBits;
+        }
+        return -1L;
+    }
+
+    /**
+     * 由状态拼装ID
+     */
+    private long compose(long state) {
+        return ((state >>> sequenceBits) << timestampLeftShift) | nodeBits | (state & sequenceMask);
     }
 
     /**
-     * 高并发环境下，返回以毫秒为单位的当前时间
+     * 返回以毫秒为单位的当前时间
+     * 使用System.currentTimeMillis()，避免Instant.now()每次创建对象
      *
      * @return 当前时间(毫秒)
      */
     private long timeGen() {
-        return Instant.now().toEpochMilli();
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * ID的组成部分
+     */
+    @Getter
+    @ToString
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    public static final class IdParts {
+
+        /**
+         * 生成时间戳(毫秒)
+         */
+        private final long timestamp;
+
+        private final long datacenterId;
+
+        private final long workerId;
+
+        private final long sequence;
+
+        public Instant getInstant() {
+            return Instant.ofEpochMilli(timestamp);
+        }
+    }
+
+    public static class Builder {
+
+        private long workerId;
+
+        private long datacenterId;
+
+        private long workerIdBits = 5L;
+
+        private long datacenterIdBits = 5L;
+
+        private long sequenceBits = 12L;
+
+        private long twepoch = DEFAULT_TWEPOCH;
+
+        private long maxBorrowMillis;
+
+        public Builder workerId(long workerId) {
+            this.workerId = workerId;
+            return this;
+        }
+
+        public Builder datacenterId(long datacenterId) {
+            this.datacenterId = datacenterId;
+            return this;
+        }
+
+        /**
+         * 位布局 (三者之和不能超过31，剩余位数留给时间戳)
+         */
+        public Builder bits(long workerIdBits, long datacenterIdBits, long sequenceBits) {
+            this.workerIdBits = workerIdBits;
+            this.datacenterIdBits = datacenterIdBits;
+            this.sequenceBits = sequenceBits;
+            return this;
+        }
+
+        public Builder twepoch(long twepoch) {
+            this.twepoch = twepoch;
+            return this;
+        }
+
+        public Builder twepoch(Instant twepoch) {
+            this.twepoch = twepoch.toEpochMilli();
+            return this;
+        }
+
+        /**
+         * 借用未来毫秒模式
+         * 时钟回退不超过maxBorrowMillis时，继续在上次的时间戳上递增序列而不是抛出异常；
+         * 毫秒内序列耗尽时，提前使用下一个毫秒而不是自旋等待
+         */
+        public Builder borrowMillis(long maxBorrowMillis) {
+            this.maxBorrowMillis = maxBorrowMillis;
+            return this;
+        }
+
+        public SnowflakeIdWorker build() {
+            return new SnowflakeIdWorker(workerId, datacenterId, workerIdBits, datacenterIdBits, sequenceBits, twepoch, maxBorrowMillis);
+        }
     }
 }
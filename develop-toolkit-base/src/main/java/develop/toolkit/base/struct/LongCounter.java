@@ -0,0 +1,143 @@
+package develop.toolkit.base.struct;
+
+/**
+ * long键的计数器 (开放寻址，键和计数都不装箱)
+ * 非线程安全
+ *
+ * @author qiushui on 2026-10-17.
+ */
+@SuppressWarnings("unused")
+public class LongCounter {
+
+    private long[] keys;
+
+    private long[] counts;
+
+    private boolean[] used;
+
+    private int mask;
+
+    private int size;
+
+    public LongCounter() {
+        this(16);
+    }
+
+    public LongCounter(int expectedSize) {
+        final int capacity = LongKeyMap.tableSizeFor(expectedSize);
+        keys = new long[capacity];
+        counts = new long[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * 加
+     */
+    public void add(long key, long count) {
+        final int i = indexOf(key);
+        if (used[i]) {
+            counts[i] += count;
+        } else {
+            used[i] = true;
+            keys[i] = key;
+            counts[i] = count;
+            afterInsert();
+        }
+    }
+
+    /**
+     * 加1
+     */
+    public void add(long key) {
+        add(key, 1L);
+    }
+
+    /**
+     * 取值
+     */
+    public long get(long key) {
+        final int i = indexOf(key);
+        return used[i] ? counts[i] : 0L;
+    }
+
+    public boolean containsKey(long key) {
+        return used[indexOf(key)];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 所有键
+     */
+    public long[] keys() {
+        final long[] result = new long[size];
+        int j = 0;
+        for (int i = 0; i < used.length; i++) {
+            if (used[i]) {
+                result[j++] = keys[i];
+            }
+        }
+        return result;
+    }
+
+    public void forEach(EntryConsumer consumer) {
+        for (int i = 0; i < used.length; i++) {
+            if (used[i]) {
+                consumer.accept(keys[i], counts[i]);
+            }
+        }
+    }
+
+    /**
+     * 合并另一个计数器
+     */
+    public void merge(LongCounter other) {
+        other.forEach(this::add);
+    }
+
+    /**
+     * 转化成KeyValuePairs (会装箱)
+     */
+    public KeyValuePairs<Long, Long> toKeyValuePairs() {
+        final KeyValuePairs<Long, Long> keyValuePairs = new KeyValuePairs<>();
+        forEach(keyValuePairs::addKeyValue);
+        return keyValuePairs;
+    }
+
+    private int indexOf(long key) {
+        int i = LongKeyMap.hash(key) & mask;
+        while (used[i] && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private void afterInsert() {
+        if (++size * 2 > used.length) {
+            final long[] oldKeys = keys;
+            final long[] oldCounts = counts;
+            final boolean[] oldUsed = used;
+            keys = new long[oldKeys.length << 1];
+            counts = new long[oldCounts.length << 1];
+            used = new boolean[oldUsed.length << 1];
+            mask = used.length - 1;
+            for (int i = 0; i < oldUsed.length; i++) {
+                if (oldUsed[i]) {
+                    final int j = indexOf(oldKeys[i]);
+                    used[j] = true;
+                    keys[j] = oldKeys[i];
+                    counts[j] = oldCounts[i];
+                }
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface EntryConsumer {
+
+        void accept(long key, long count);
+    }
+}
@@ -0,0 +1,160 @@
+package develop.toolkit.base.struct;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongFunction;
+
+/**
+ * long键的Map (开放寻址，键不装箱)
+ * 只支持新增和覆盖，不支持删除，值不能为null；非线程安全
+ *
+ * @author qiushui on 2026-10-17.
+ */
+@SuppressWarnings({"unused", "unchecked"})
+public class LongKeyMap<V> {
+
+    private long[] keys;
+
+    private Object[] values;
+
+    private int mask;
+
+    private int size;
+
+    public LongKeyMap() {
+        this(16);
+    }
+
+    public LongKeyMap(int expectedSize) {
+        final int capacity = tableSizeFor(expectedSize);
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(long key) {
+        return values[indexOf(key)] != null;
+    }
+
+    public V get(long key) {
+        return (V) values[indexOf(key)];
+    }
+
+    public V getOrDefault(long key, V defaultValue) {
+        final V value = get(key);
+        return value != null ? value : defaultValue;
+    }
+
+    /**
+     * 放入值
+     *
+     * @return 旧值
+     */
+    public V put(long key, V value) {
+        if (value == null) {
+            throw new NullPointerException("value can't be null");
+        }
+        final int i = indexOf(key);
+        final V old = (V) values[i];
+        keys[i] = key;
+        values[i] = value;
+        if (old == null) {
+            afterInsert();
+        }
+        return old;
+    }
+
+    public V computeIfAbsent(long key, LongFunction<V> function) {
+        final int i = indexOf(key);
+        V value = (V) values[i];
+        if (value == null) {
+            value = function.apply(key);
+            if (value != null) {
+                keys[i] = key;
+                values[i] = value;
+                afterInsert();
+            }
+        }
+        return value;
+    }
+
+    /**
+     * 所有键
+     */
+    public long[] keys() {
+        final long[] result = new long[size];
+        int j = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                result[j++] = keys[i];
+            }
+        }
+        return result;
+    }
+
+    public void forEach(EntryConsumer<V> consumer) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                consumer.accept(keys[i], (V) values[i]);
+            }
+        }
+    }
+
+    /**
+     * 转化成普通Map (键会装箱)
+     */
+    public Map<Long, V> toMap() {
+        final Map<Long, V> map = new LinkedHashMap<>();
+        forEach(map::put);
+        return map;
+    }
+
+    private int indexOf(long key) {
+        int i = hash(key) & mask;
+        while (values[i] != null && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private void afterInsert() {
+        if (++size * 2 > values.length) {
+            final long[] oldKeys = keys;
+            final Object[] oldValues = values;
+            keys = new long[oldKeys.length << 1];
+            values = new Object[oldValues.length << 1];
+            mask = values.length - 1;
+            for (int i = 0; i < oldValues.length; i++) {
+                if (oldValues[i] != null) {
+                    final int j = indexOf(oldKeys[i]);
+                    keys[j] = oldKeys[i];
+                    values[j] = oldValues[i];
+                }
+            }
+        }
+    }
+
+    static int hash(long key) {
+        final long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    static int tableSizeFor(int expectedSize) {
+        final int capacity = Math.max(2, expectedSize) * 2;
+        return Integer.highestOneBit(capacity - 1) << 1;
+    }
+
+    @FunctionalInterface
+    public interface EntryConsumer<V> {
+
+        void accept(long key, V value);
+    }
+}
@@ -0,0 +1,32 @@
+package develop.toolkit.base.struct;
+
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 已经URL编码过的参数值
+ * StringAdvice.urlParametersFormat遇到它时原样拼接，不再二次编码
+ *
+ * @author qiushui on 2026-10-17.
+ */
+@Getter
+@EqualsAndHashCode
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class UrlEncoded {
+
+    private final String value;
+
+    public static UrlEncoded of(String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("encoded value is null");
+        }
+        return new UrlEncoded(value);
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+}
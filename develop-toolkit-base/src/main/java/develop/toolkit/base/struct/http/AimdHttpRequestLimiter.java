@@ -0,0 +1,85 @@
+package develop.toolkit.base.struct.http;
+
+/**
+ * 自适应并发数限流 (AIMD)
+ * 请求正常且并发上限被充分使用时上限加1；请求超时、出错、被服务端限流(429/503)，
+ * 或者耗时超过观察到的最小耗时的latencyTolerance倍 (类似Vegas，以排队延迟判断拥塞) 时上限乘以backoffRatio
+ * 最小耗时每1000个样本按窗口内的最小值重新估计，以适应下游基线延迟的变化
+ *
+ * @author qiushui on 2026-10-17.
+ */
+public final class AimdHttpRequestLimiter extends ConcurrencyHttpRequestLimiter {
+
+    private static final int MIN_RTT_WINDOW = 1000;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final double backoffRatio;
+
+    private final double latencyTolerance;
+
+    private long minRtt = Long.MAX_VALUE;
+
+    private long windowMinRtt = Long.MAX_VALUE;
+
+    private int windowSamples;
+
+    public AimdHttpRequestLimiter(int initialLimit, int minLimit, int maxLimit) {
+        this(initialLimit, minLimit, maxLimit, 0.9D, 2D);
+    }
+
+    /**
+     * @param initialLimit     初始并发上限
+     * @param minLimit         最小并发上限
+     * @param maxLimit         最大并发上限
+     * @param backoffRatio     拥塞时的缩减比例 (0, 1)
+     * @param latencyTolerance 耗时超过最小耗时的多少倍视为拥塞，小于等于0时不按耗时判断
+     */
+    public AimdHttpRequestLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio, double latencyTolerance) {
+        super(initialLimit);
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("limits must satisfy 1 <= minLimit <= initialLimit <= maxLimit");
+        }
+        if (backoffRatio <= 0D || backoffRatio >= 1D) {
+            throw new IllegalArgumentException("backoffRatio must be in (0, 1)");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyTolerance = latencyTolerance;
+    }
+
+    @Override
+    protected int adjustLimit(int limit, int inFlight, HttpClientReceiver<?> receiver) {
+        final int status = receiver.getHttpStatus();
+        final boolean dropped = receiver.isTimeout() || receiver.getException() != null || status == 429 || status == 503;
+        if (dropped) {
+            return Math.max(minLimit, (int) (limit * backoffRatio));
+        }
+        final long rtt = receiver.getCostTime();
+        final boolean congested = latencyTolerance > 0D && minRtt != Long.MAX_VALUE && rtt > minRtt * latencyTolerance;
+        sampleRtt(rtt);
+        if (congested) {
+            return Math.max(minLimit, (int) (limit * backoffRatio));
+        }
+        // 只有上限被用到一半以上时才继续增加，避免低负载时上限无限增长
+        if (inFlight * 2 >= limit) {
+            return Math.min(maxLimit, limit + 1);
+        }
+        return limit;
+    }
+
+    private void sampleRtt(long rtt) {
+        // 毫秒精度下0耗时无意义
+        final long sample = Math.max(1L, rtt);
+        minRtt = Math.min(minRtt, sample);
+        windowMinRtt = Math.min(windowMinRtt, sample);
+        if (++windowSamples >= MIN_RTT_WINDOW) {
+            minRtt = windowMinRtt;
+            windowMinRtt = Long.MAX_VALUE;
+            windowSamples = 0;
+        }
+    }
+}
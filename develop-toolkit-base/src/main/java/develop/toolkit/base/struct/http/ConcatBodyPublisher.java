@@ -0,0 +1,158 @@
+package develop.toolkit.base.struct.http;
+
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Flow;
+
+/**
+ * 顺序拼接多个BodyPublisher
+ * 依次订阅每个publisher并把下游的请求量转交给当前publisher，不做任何缓冲；
+ * 所有publisher长度已知时contentLength为总和，否则为-1 (分块传输)
+ *
+ * @author qiushui on 2026-10-17.
+ */
+final class ConcatBodyPublisher implements HttpRequest.BodyPublisher {
+
+    private final List<HttpRequest.BodyPublisher> publishers;
+
+    private final long contentLength;
+
+    ConcatBodyPublisher(List<HttpRequest.BodyPublisher> publishers) {
+        this.publishers = List.copyOf(publishers);
+        long length = 0;
+        for (HttpRequest.BodyPublisher publisher : publishers) {
+            final long partLength = publisher.contentLength();
+            if (partLength < 0) {
+                length = -1;
+                break;
+            }
+            length += partLength;
+        }
+        this.contentLength = length;
+    }
+
+    @Override
+    public long contentLength() {
+        return contentLength;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+        final ConcatSubscription subscription = new ConcatSubscription(subscriber, publishers.iterator());
+        subscriber.onSubscribe(subscription);
+        subscription.subscribeNext();
+    }
+
+    /**
+     * 对下游是Subscription，对每个上游publisher是Subscriber
+     */
+    private static final class ConcatSubscription implements Flow.Subscription, Flow.Subscriber<ByteBuffer> {
+
+        private final Flow.Subscriber<? super ByteBuffer> downstream;
+
+        private final Iterator<HttpRequest.BodyPublisher> iterator;
+
+        /**
+         * 下游已请求但还没有交付的数量
+         */
+        private long requested;
+
+        private Flow.Subscription current;
+
+        private boolean cancelled;
+
+        ConcatSubscription(Flow.Subscriber<? super ByteBuffer> downstream, Iterator<HttpRequest.BodyPublisher> iterator) {
+            this.downstream = downstream;
+            this.iterator = iterator;
+        }
+
+        void subscribeNext() {
+            synchronized (this) {
+                if (cancelled) {
+                    return;
+                }
+            }
+            if (iterator.hasNext()) {
+                iterator.next().subscribe(this);
+            } else {
+                downstream.onComplete();
+            }
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                cancel();
+                downstream.onError(new IllegalArgumentException("non-positive subscription request: " + n));
+                return;
+            }
+            final Flow.Subscription subscription;
+            synchronized (this) {
+                requested = requested + n < 0 ? Long.MAX_VALUE : requested + n;
+                subscription = current;
+            }
+            if (subscription != null) {
+                subscription.request(n);
+            }
+        }
+
+        @Override
+        public void cancel() {
+            final Flow.Subscription subscription;
+            synchronized (this) {
+                cancelled = true;
+                subscription = current;
+                current = null;
+            }
+            if (subscription != null) {
+                subscription.cancel();
+            }
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            final long pending;
+            synchronized (this) {
+                if (cancelled) {
+                    pending = -1;
+                } else {
+                    current = subscription;
+                    pending = requested;
+                }
+            }
+            if (pending < 0) {
+                subscription.cancel();
+            } else if (pending > 0) {
+                subscription.request(pending);
+            }
+        }
+
+        @Override
+        public void onNext(ByteBuffer item) {
+            synchronized (this) {
+                if (requested != Long.MAX_VALUE) {
+                    requested--;
+                }
+            }
+            downstream.onNext(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            synchronized (this) {
+                current = null;
+            }
+            downstream.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            synchronized (this) {
+                current = null;
+            }
+            subscribeNext();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package develop.toolkit.base.struct.http;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 最大并发数限流
+ * 进行中的请求达到上限时排队等待 (先进先出)，有请求结束时按顺序放行，等待超过maxWait的出队并拒绝
+ *
+ * @author qiushui on 2026-10-17.
+ */
+public class ConcurrencyHttpRequestLimiter implements HttpRequestLimiter {
+
+    private final ArrayDeque<CompletableFuture<Boolean>> waiters = new ArrayDeque<>();
+
+    private int limit;
+
+    private int inFlight;
+
+    /**
+     * @param limit 最大并发数
+     */
+    public ConcurrencyHttpRequestLimiter(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be at least 1");
+        }
+        this.limit = limit;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> acquire(URI uri, Duration maxWait) {
+        final CompletableFuture<Boolean> future;
+        synchronized (this) {
+            if (inFlight < limit && waiters.isEmpty()) {
+                inFlight++;
+                return CompletableFuture.completedFuture(true);
+            }
+            if (maxWait != null && maxWait.isZero()) {
+                return CompletableFuture.completedFuture(false);
+            }
+            future = new CompletableFuture<>();
+            waiters.offer(future);
+        }
+        if (maxWait != null) {
+            CompletableFuture
+                    .delayedExecutor(maxWait.toNanos(), TimeUnit.NANOSECONDS)
+                    .execute(() -> {
+                        // 在锁内出队才算超时，与放行互斥，保证每个等待者只会有一个结果
+                        final boolean removed;
+                        synchronized (this) {
+                            removed = waiters.remove(future);
+                        }
+                        if (removed) {
+                            future.complete(false);
+                        }
+                    });
+        }
+        return future;
+    }
+
+    @Override
+    public void release(URI uri, HttpClientReceiver<?> receiver) {
+        final List<CompletableFuture<Boolean>> granted;
+        synchronized (this) {
+            limit = Math.max(1, adjustLimit(limit, inFlight, receiver));
+            inFlight--;
+            granted = grant();
+        }
+        // 在锁外完成，避免后续回调(如发起异步请求)持有锁
+        granted.forEach(future -> future.complete(true));
+    }
+
+    /**
+     * 请求结束时调整并发上限，子类覆盖以实现自适应限流；在锁内调用
+     *
+     * @param limit    当前上限
+     * @param inFlight 进行中的请求数 (包括本次结束的请求)
+     * @param receiver 本次请求的结果
+     * @return 新的上限
+     */
+    protected int adjustLimit(int limit, int inFlight, HttpClientReceiver<?> receiver) {
+        return limit;
+    }
+
+    private List<CompletableFuture<Boolean>> grant() {
+        final List<CompletableFuture<Boolean>> granted = new ArrayList<>();
+        while (inFlight < limit && !waiters.isEmpty()) {
+            granted.add(waiters.poll());
+            inFlight++;
+        }
+        return granted;
+    }
+
+    public synchronized int getLimit() {
+        return limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * 排队等待的请求数
+     */
+    public synchronized int getWaiting() {
+        return waiters.size();
+    }
+}
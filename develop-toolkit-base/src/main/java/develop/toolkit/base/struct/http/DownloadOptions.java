@@ -0,0 +1,51 @@
+package develop.toolkit.base.struct.http;
+
+import lombok.Getter;
+
+/**
+ * 文件下载选项
+ *
+ * @author qiushui on 2026-10-17.
+ */
+@Getter
+public final class DownloadOptions {
+
+    /**
+     * 存在未完成的 .part 临时文件时，使用Range请求从断点继续下载
+     */
+    private boolean resume;
+
+    private DownloadProgressListener progressListener;
+
+    /**
+     * 校验算法 (MessageDigest算法名，如SHA-256、MD5)
+     */
+    private String checksumAlgorithm;
+
+    /**
+     * 期望的校验值 (十六进制，不区分大小写)
+     */
+    private String expectedChecksum;
+
+    public DownloadOptions resume(boolean resume) {
+        this.resume = resume;
+        return this;
+    }
+
+    public DownloadOptions progressListener(DownloadProgressListener progressListener) {
+        this.progressListener = progressListener;
+        return this;
+    }
+
+    /**
+     * 下载完成后校验，算法和期望值都不能为空
+     */
+    public DownloadOptions checksum(String algorithm, String expectedChecksum) {
+        if (algorithm == null || expectedChecksum == null) {
+            throw new IllegalArgumentException("checksum algorithm and expected checksum must not be null");
+        }
+        this.checksumAlgorithm = algorithm;
+        this.expectedChecksum = expectedChecksum;
+        return this;
+    }
+}
@@ -0,0 +1,17 @@
+package develop.toolkit.base.struct.http;
+
+/**
+ * 下载进度监听器
+ * 在HttpClient的响应处理线程上回调，不要在里面做耗时操作
+ *
+ * @author qiushui on 2026-10-17.
+ */
+@FunctionalInterface
+public interface DownloadProgressListener {
+
+    /**
+     * @param downloaded 已下载字节数 (包含续传前已有的部分)
+     * @param total      总字节数，未知时为-1
+     */
+    void onProgress(long downloaded, long total);
+}
@@ -0,0 +1,220 @@
+package develop.toolkit.base.struct.http;
+
+import lombok.Getter;
+
+import java.io.IOException;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+
+/**
+ * 下载到文件的发送器扩展
+ * 响应体通过BodySubscribers.ofFile直接写入临时文件，续传时(206)追加写入，服务端不支持Range或资源已变化(200)时从头覆盖写入；
+ * 开始写入时把响应的强ETag或Last-Modified记录到 .validator 文件，续传时作为If-Range发送，保证追加的是同一个资源；
+ * 206的Content-Range起点与已下载长度不一致时不写入，由调用方删除临时文件后从头下载
+ *
+ * @author qiushui on 2026-10-17.
+ */
+public final class FileDownloadSenderHandler implements SenderHandler<Path> {
+
+    private final Path partFile;
+
+    private final long resumeFrom;
+
+    private final DownloadProgressListener progressListener;
+
+    /**
+     * 总字节数，未知时为-1
+     */
+    @Getter
+    private volatile long totalBytes = -1L;
+
+    /**
+     * 是否从断点续传
+     */
+    @Getter
+    private volatile boolean resumed;
+
+    /**
+     * 续传时临时文件已经完整 (服务端返回416且总长度等于已下载长度)
+     */
+    @Getter
+    private volatile boolean alreadyComplete;
+
+    /**
+     * 206的Content-Range起点与已下载长度不一致，响应体被丢弃
+     */
+    @Getter
+    private volatile boolean rangeMismatch;
+
+    public FileDownloadSenderHandler(Path partFile, long resumeFrom, DownloadProgressListener progressListener) {
+        this.partFile = partFile;
+        this.resumeFrom = resumeFrom;
+        this.progressListener = progressListener;
+    }
+
+    @Override
+    public HttpResponse.BodyHandler<Path> bodyHandler() {
+        return responseInfo -> {
+            final int status = responseInfo.statusCode();
+            final HttpHeaders headers = responseInfo.headers();
+            final long contentLength = headers.firstValueAsLong("Content-Length").orElse(-1L);
+            if (status == 206 && resumeFrom > 0) {
+                if (contentRangeStart(headers) != resumeFrom) {
+                    rangeMismatch = true;
+                    return HttpResponse.BodySubscribers.replacing(null);
+                }
+                resumed = true;
+                final long total = contentRangeTotal(headers);
+                totalBytes = total >= 0 ? total : (contentLength >= 0 ? resumeFrom + contentLength : -1L);
+                return progress(
+                        HttpResponse.BodySubscribers.ofFile(partFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND),
+                        resumeFrom
+                );
+            } else if (status >= 200 && status < 300) {
+                totalBytes = contentLength;
+                saveValidator(headers);
+                return progress(
+                        HttpResponse.BodySubscribers.ofFile(partFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING),
+                        0L
+                );
+            } else if (status == 416 && resumeFrom > 0 && contentRangeTotal(headers) == resumeFrom) {
+                alreadyComplete = true;
+                totalBytes = resumeFrom;
+                return HttpResponse.BodySubscribers.replacing(partFile);
+            } else {
+                return HttpResponse.BodySubscribers.replacing(null);
+            }
+        };
+    }
+
+    /**
+     * 续传用的校验值文件
+     */
+    public static Path validatorFile(Path partFile) {
+        return partFile.resolveSibling(partFile.getFileName() + ".validator");
+    }
+
+    /**
+     * 读取续传用的If-Range值，没有记录时为null
+     */
+    public static String readValidator(Path partFile) {
+        final Path file = validatorFile(partFile);
+        try {
+            return Files.exists(file) ? Files.readString(file, StandardCharsets.UTF_8).trim() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 记录强ETag，没有时记录Last-Modified (弱ETag不能用于If-Range)；都没有时删除旧记录，下次无法续传
+     */
+    private void saveValidator(HttpHeaders headers) {
+        final String validator = headers
+                .firstValue("ETag")
+                .filter(etag -> !etag.startsWith("W/"))
+                .or(() -> headers.firstValue("Last-Modified"))
+                .orElse(null);
+        final Path file = validatorFile(partFile);
+        try {
+            if (validator == null) {
+                Files.deleteIfExists(file);
+            } else {
+                Files.writeString(file, validator, StandardCharsets.UTF_8);
+            }
+        } catch (IOException e) {
+            // 记录失败只影响下次续传
+        }
+    }
+
+    /**
+     * 解析Content-Range中的起始位置，无法解析时为-1
+     */
+    private static long contentRangeStart(HttpHeaders headers) {
+        return headers
+                .firstValue("Content-Range")
+                .map(value -> {
+                    final int space = value.indexOf(' ');
+                    final int dash = value.indexOf('-', space + 1);
+                    if (space < 0 || dash < 0) {
+                        return -1L;
+                    }
+                    try {
+                        return Long.parseLong(value.substring(space + 1, dash).trim());
+                    } catch (NumberFormatException e) {
+                        return -1L;
+                    }
+                })
+                .orElse(-1L);
+    }
+
+    /**
+     * 解析Content-Range中斜杠后面的总长度，未知时为-1
+     */
+    private static long contentRangeTotal(HttpHeaders headers) {
+        return headers
+                .firstValue("Content-Range")
+                .map(value -> {
+                    final int i = value.lastIndexOf('/');
+                    if (i < 0 || value.endsWith("*")) {
+                        return -1L;
+                    }
+                    try {
+                        return Long.parseLong(value.substring(i + 1).trim());
+                    } catch (NumberFormatException e) {
+                        return -1L;
+                    }
+                })
+                .orElse(-1L);
+    }
+
+    private HttpResponse.BodySubscriber<Path> progress(HttpResponse.BodySubscriber<Path> delegate, long initial) {
+        if (progressListener == null) {
+            return delegate;
+        }
+        return new HttpResponse.BodySubscriber<>() {
+
+            private long downloaded = initial;
+
+            @Override
+            public CompletionStage<Path> getBody() {
+                return delegate.getBody();
+            }
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                delegate.onSubscribe(subscription);
+                progressListener.onProgress(downloaded, totalBytes);
+            }
+
+            @Override
+            public void onNext(List<ByteBuffer> item) {
+                long length = 0;
+                for (ByteBuffer buffer : item) {
+                    length += buffer.remaining();
+                }
+                delegate.onNext(item);
+                downloaded += length;
+                progressListener.onProgress(downloaded, totalBytes);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                delegate.onError(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                delegate.onComplete();
+            }
+        };
+    }
+}
@@ -0,0 +1,23 @@
+package develop.toolkit.base.struct.http;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 批量发送的结果
+ *
+ * @author qiushui on 2026-10-17.
+ */
+@Getter
+@RequiredArgsConstructor
+public final class HttpBatchResult {
+
+    /**
+     * 与传入的发送器顺序一致
+     */
+    private final List<HttpClientReceiver<String>> receivers;
+
+    private final HttpBatchStats stats;
+}
@@ -0,0 +1,170 @@
+package develop.toolkit.base.struct.http;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 批量发送的汇总统计
+ * 延迟取每个receiver的costTime (毫秒)，因截止时间而没有发出的请求不计入延迟；
+ * 延迟记录在固定大小的对数分桶直方图中，内存占用与请求总数无关，分位数的相对误差不超过1/64，最小值、最大值和平均值是精确的
+ *
+ * @author qiushui on 2026-10-17.
+ */
+public final class HttpBatchStats {
+
+    private int succeeded;
+
+    private int failed;
+
+    private int expired;
+
+    /**
+     * 小于128的值每个值一个桶，之后每个2的幂区间分64个桶
+     */
+    private static final int LINEAR_BUCKETS = 128;
+
+    private static final int SUB_BUCKETS = 64;
+
+    private final long[] buckets = new long[LINEAR_BUCKETS + (Long.SIZE - 1 - 7) * SUB_BUCKETS];
+
+    private long latencyCount;
+
+    private long latencySum;
+
+    private long minLatency = Long.MAX_VALUE;
+
+    private long maxLatency;
+
+    private long elapsedNanos = -1L;
+
+    /**
+     * 记录一个发出了的请求的结果
+     */
+    public synchronized void record(HttpClientReceiver<?> receiver) {
+        if (receiver.isSuccess()) {
+            succeeded++;
+        } else {
+            failed++;
+        }
+        final long latency = Math.max(0L, receiver.getCostTime());
+        buckets[bucketIndex(latency)]++;
+        latencyCount++;
+        latencySum += latency;
+        minLatency = Math.min(minLatency, latency);
+        maxLatency = Math.max(maxLatency, latency);
+    }
+
+    /**
+     * 记录一个因截止时间没有发出的请求
+     */
+    public synchronized void expired() {
+        expired++;
+    }
+
+    /**
+     * 批量结束
+     */
+    public synchronized void finish(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public synchronized boolean isFinished() {
+        return elapsedNanos >= 0;
+    }
+
+    public synchronized int getTotal() {
+        return succeeded + failed + expired;
+    }
+
+    public synchronized int getSucceeded() {
+        return succeeded;
+    }
+
+    public synchronized int getFailed() {
+        return failed;
+    }
+
+    /**
+     * 因截止时间没有发出的请求数
+     */
+    public synchronized int getExpired() {
+        return expired;
+    }
+
+    /**
+     * 整批耗时 (毫秒)，未结束时为-1
+     */
+    public synchronized long getElapsedMillis() {
+        return elapsedNanos < 0 ? -1L : TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+
+    /**
+     * 每秒完成的请求数
+     */
+    public synchronized double getThroughput() {
+        return elapsedNanos <= 0 ? 0D : (succeeded + failed) / (elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1L));
+    }
+
+    public synchronized double getAverageLatency() {
+        return latencyCount == 0 ? 0D : latencySum / (double) latencyCount;
+    }
+
+    public synchronized long getMinLatency() {
+        return latencyCount == 0 ? 0L : minLatency;
+    }
+
+    public synchronized long getMaxLatency() {
+        return maxLatency;
+    }
+
+    /**
+     * 延迟分位数 (毫秒)，取所在桶的下界
+     * @param percentile [0, 100]
+     */
+    public synchronized long getLatencyPercentile(double percentile) {
+        if (percentile < 0D || percentile > 100D) {
+            throw new IllegalArgumentException("percentile must be in [0, 100]");
+        }
+        if (latencyCount == 0) {
+            return 0L;
+        }
+        final long rank = Math.max(1L, (long) Math.ceil(percentile / 100D * latencyCount));
+        if (rank >= latencyCount) {
+            return maxLatency;
+        }
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= rank) {
+                return Math.min(maxLatency, Math.max(minLatency, bucketValue(i)));
+            }
+        }
+        return maxLatency;
+    }
+
+    private static int bucketIndex(long value) {
+        if (value < LINEAR_BUCKETS) {
+            return (int) value;
+        }
+        final int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        final int sub = (int) (value >>> (exponent - 6)) & (SUB_BUCKETS - 1);
+        return LINEAR_BUCKETS + (exponent - 7) * SUB_BUCKETS + sub;
+    }
+
+    private static long bucketValue(int index) {
+        if (index < LINEAR_BUCKETS) {
+            return index;
+        }
+        final int k = index - LINEAR_BUCKETS;
+        final int exponent = k / SUB_BUCKETS + 7;
+        return (long) (SUB_BUCKETS + k % SUB_BUCKETS) << (exponent - 6);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "total=%d, succeeded=%d, failed=%d, expired=%d, elapsed=%dms, throughput=%.1f/s, latency(avg=%.2fms, min=%dms, p50=%dms, p90=%dms, p99=%dms, max=%dms)",
+                getTotal(), getSucceeded(), getFailed(), getExpired(), getElapsedMillis(), getThroughput(),
+                getAverageLatency(), getMinLatency(), getLatencyPercentile(50D), getLatencyPercentile(90D), getLatencyPercentile(99D), getMaxLatency()
+        );
+    }
+}
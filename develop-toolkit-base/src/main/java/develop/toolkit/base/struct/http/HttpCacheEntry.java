@@ -0,0 +1,227 @@
+package develop.toolkit.base.struct.http;
+
+import lombok.Getter;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 响应缓存条目
+ * 新鲜期取 Cache-Control: max-age，没有时取 Expires - Date，都没有时为0 (每次都用ETag/Last-Modified重新验证)
+ *
+ * @author qiushui on 2026-10-17.
+ */
+@Getter
+public final class HttpCacheEntry {
+
+    private final String key;
+
+    private final int httpStatus;
+
+    private final HttpHeaders headers;
+
+    private final byte[] body;
+
+    /**
+     * 存储时请求中Vary指定的请求头的值
+     */
+    private final Map<String, String> varyValues;
+
+    /**
+     * 收到响应的时间 (毫秒时间戳)
+     */
+    private final long responseTime;
+
+    /**
+     * 新鲜期 (毫秒)
+     */
+    private final long freshnessLifetime;
+
+    /**
+     * 收到时已有的年龄 (Age头，毫秒)
+     */
+    private final long initialAge;
+
+    /**
+     * Cache-Control: no-cache，每次使用前都必须重新验证
+     */
+    private final boolean noCache;
+
+    public HttpCacheEntry(String key, int httpStatus, HttpHeaders headers, byte[] body, Map<String, String> varyValues, long responseTime) {
+        this.key = key;
+        this.httpStatus = httpStatus;
+        this.headers = headers;
+        this.body = body;
+        this.varyValues = Map.copyOf(varyValues);
+        this.responseTime = responseTime;
+        final String cacheControl = String.join(",", headers.allValues("Cache-Control")).toLowerCase(Locale.ROOT);
+        this.noCache = hasDirective(cacheControl, "no-cache");
+        this.freshnessLifetime = freshnessLifetime(cacheControl, headers);
+        this.initialAge = TimeUnit.SECONDS.toMillis(headers.firstValueAsLong("Age").orElse(0L));
+    }
+
+    public long getAge() {
+        return initialAge + Math.max(0L, System.currentTimeMillis() - responseTime);
+    }
+
+    public boolean isFresh() {
+        return !noCache && getAge() < freshnessLifetime;
+    }
+
+    public String getETag() {
+        return headers.firstValue("ETag").orElse(null);
+    }
+
+    public String getLastModified() {
+        return headers.firstValue("Last-Modified").orElse(null);
+    }
+
+    /**
+     * 是否有验证器，可以发条件请求
+     */
+    public boolean hasValidator() {
+        return getETag() != null || getLastModified() != null;
+    }
+
+    /**
+     * 占用的字节数 (估算)
+     */
+    public long size() {
+        long size = body.length + key.length() * 2L + 64L;
+        for (Map.Entry<String, List<String>> entry : headers.map().entrySet()) {
+            for (String value : entry.getValue()) {
+                size += (entry.getKey().length() + value.length()) * 2L;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * 请求头是否与存储时Vary指定的请求头一致，缺少的请求头按空字符串比较 (与存储时一致)
+     */
+    public boolean matches(Map<String, String> requestHeaders) {
+        for (Map.Entry<String, String> entry : varyValues.entrySet()) {
+            if (!entry.getValue().equals(Objects.toString(HttpResponseCache.header(requestHeaders, entry.getKey()), ""))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public HttpResponse.ResponseInfo responseInfo() {
+        return new HttpResponse.ResponseInfo() {
+            @Override
+            public int statusCode() {
+                return httpStatus;
+            }
+
+            @Override
+            public HttpHeaders headers() {
+                return headers;
+            }
+
+            @Override
+            public HttpClient.Version version() {
+                return HttpClient.Version.HTTP_1_1;
+            }
+        };
+    }
+
+    /**
+     * 把缓存的响应体交给bodyHandler，得到与真实响应相同类型的body
+     */
+    public <BODY> CompletableFuture<BODY> body(HttpResponse.BodyHandler<BODY> bodyHandler) {
+        final HttpResponse.BodySubscriber<BODY> subscriber = bodyHandler.apply(responseInfo());
+        subscriber.onSubscribe(new Flow.Subscription() {
+
+            private boolean done;
+
+            @Override
+            public void request(long n) {
+                synchronized (this) {
+                    if (done) {
+                        return;
+                    }
+                    done = true;
+                }
+                if (body.length > 0) {
+                    subscriber.onNext(List.of(ByteBuffer.wrap(body).asReadOnlyBuffer()));
+                }
+                subscriber.onComplete();
+            }
+
+            @Override
+            public synchronized void cancel() {
+                done = true;
+            }
+        });
+        return subscriber.getBody().toCompletableFuture();
+    }
+
+    /**
+     * 304之后用新的响应头更新 (新的响应头覆盖同名的旧响应头)
+     */
+    public HttpCacheEntry revalidate(HttpHeaders notModifiedHeaders) {
+        final Map<String, List<String>> merged = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        merged.putAll(headers.map());
+        notModifiedHeaders.map().forEach((name, values) -> {
+            // Content-Length等描述响应体的头以缓存的为准
+            if (!name.equalsIgnoreCase("Content-Length") && !name.equalsIgnoreCase("Transfer-Encoding")) {
+                merged.put(name, values);
+            }
+        });
+        return new HttpCacheEntry(key, httpStatus, HttpHeaders.of(merged, (name, value) -> true), body, varyValues, System.currentTimeMillis());
+    }
+
+    static boolean hasDirective(String cacheControl, String directive) {
+        for (String part : cacheControl.split(",")) {
+            final String trimmed = part.trim();
+            // 带字段名的形式如 private="Set-Cookie"、no-cache="Set-Cookie" 按整个响应处理
+            if (trimmed.equals(directive) || trimmed.startsWith(directive + "=")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long freshnessLifetime(String cacheControl, HttpHeaders headers) {
+        for (String part : cacheControl.split(",")) {
+            final String directive = part.trim();
+            if (directive.startsWith("max-age=")) {
+                try {
+                    return TimeUnit.SECONDS.toMillis(Long.parseLong(directive.substring(8).replace("\"", "")));
+                } catch (NumberFormatException e) {
+                    return 0L;
+                }
+            }
+        }
+        final String expires = headers.firstValue("Expires").orElse(null);
+        if (expires != null) {
+            try {
+                final long expiresTime = ZonedDateTime.parse(expires, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+                final long date = headers
+                        .firstValue("Date")
+                        .map(value -> ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli())
+                        .orElse(System.currentTimeMillis());
+                return Math.max(0L, expiresTime - date);
+            } catch (DateTimeParseException e) {
+                // 无效的Expires视为已过期
+                return 0L;
+            }
+        }
+        return 0L;
+    }
+}
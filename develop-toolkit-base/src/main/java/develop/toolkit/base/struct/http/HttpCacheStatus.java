@@ -0,0 +1,24 @@
+package develop.toolkit.base.struct.http;
+
+/**
+ * 响应缓存命中情况
+ *
+ * @author qiushui on 2026-10-17.
+ */
+public enum HttpCacheStatus {
+
+    /**
+     * 缓存新鲜，直接使用缓存，请求没有发出
+     */
+    HIT,
+
+    /**
+     * 缓存过期，条件请求返回304，使用缓存的响应体
+     */
+    REVALIDATED,
+
+    /**
+     * 没有可用的缓存，使用服务端的完整响应
+     */
+    MISS
+}
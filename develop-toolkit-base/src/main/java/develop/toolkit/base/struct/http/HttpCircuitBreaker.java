@@ -0,0 +1,326 @@
+package develop.toolkit.base.struct.http;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * 按主机 (scheme://host:port) 熔断
+ * 关闭状态下统计最近windowSize次调用的失败率和慢调用率，调用数达到minimumCalls且任一比率达到阈值时打开；
+ * 打开后请求直接失败不发出，经过openDuration进入半开，放行halfOpenCalls个探测请求，
+ * 探测请求全部结束后比率仍达到阈值则重新打开，否则关闭并清空统计
+ * windowSize在主机第一次请求时固定下来，之后不能再修改；minimumCalls不能超过windowSize，需要先设置windowSize
+ *
+ * @author qiushui on 2026-10-17.
+ */
+@Getter
+public final class HttpCircuitBreaker {
+
+    /**
+     * 默认失败条件：超时、IO异常、5xx
+     */
+    public static final Predicate<HttpClientReceiver<?>> DEFAULT_FAILURE_ON = receiver -> receiver.isTimeout()
+            || receiver.getException() != null
+            || receiver.getHttpStatus() >= 500;
+
+    private int windowSize = 100;
+
+    private int minimumCalls = 20;
+
+    /**
+     * 失败率阈值 (百分比)
+     */
+    private double failureRateThreshold = 50D;
+
+    /**
+     * 耗时达到多少算慢调用
+     */
+    private Duration slowCallDuration = Duration.ofSeconds(10L);
+
+    /**
+     * 慢调用率阈值 (百分比)
+     */
+    private double slowCallRateThreshold = 100D;
+
+    private Duration openDuration = Duration.ofSeconds(30L);
+
+    private int halfOpenCalls = 5;
+
+    private Predicate<HttpClientReceiver<?>> failureOn = DEFAULT_FAILURE_ON;
+
+    @Getter(AccessLevel.NONE)
+    private final Map<String, Circuit> circuits = new ConcurrentHashMap<>();
+
+    public HttpCircuitBreaker windowSize(int windowSize) {
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("windowSize must be at least 1");
+        }
+        if (minimumCalls > windowSize) {
+            throw new IllegalArgumentException("windowSize must not be less than minimumCalls " + minimumCalls);
+        }
+        if (!circuits.isEmpty()) {
+            throw new IllegalStateException("windowSize can't be changed after the circuit breaker has been used");
+        }
+        this.windowSize = windowSize;
+        return this;
+    }
+
+    public HttpCircuitBreaker minimumCalls(int minimumCalls) {
+        if (minimumCalls < 1 || minimumCalls > windowSize) {
+            throw new IllegalArgumentException("minimumCalls must be in [1, windowSize]");
+        }
+        this.minimumCalls = minimumCalls;
+        return this;
+    }
+
+    public HttpCircuitBreaker failureRateThreshold(double failureRateThreshold) {
+        checkRate("failureRateThreshold", failureRateThreshold);
+        this.failureRateThreshold = failureRateThreshold;
+        return this;
+    }
+
+    public HttpCircuitBreaker slowCall(Duration slowCallDuration, double slowCallRateThreshold) {
+        checkPositive("slowCallDuration", slowCallDuration);
+        checkRate("slowCallRateThreshold", slowCallRateThreshold);
+        this.slowCallDuration = slowCallDuration;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        return this;
+    }
+
+    public HttpCircuitBreaker openDuration(Duration openDuration) {
+        checkPositive("openDuration", openDuration);
+        this.openDuration = openDuration;
+        return this;
+    }
+
+    public HttpCircuitBreaker halfOpenCalls(int halfOpenCalls) {
+        if (halfOpenCalls < 1) {
+            throw new IllegalArgumentException("halfOpenCalls must be at least 1");
+        }
+        this.halfOpenCalls = halfOpenCalls;
+        return this;
+    }
+
+    public HttpCircuitBreaker failureOn(Predicate<HttpClientReceiver<?>> failureOn) {
+        if (failureOn == null) {
+            throw new IllegalArgumentException("failureOn is null");
+        }
+        this.failureOn = failureOn;
+        return this;
+    }
+
+    private static void checkRate(String name, double rate) {
+        if (rate <= 0D || rate > 100D) {
+            throw new IllegalArgumentException(name + " must be in (0, 100]");
+        }
+    }
+
+    private static void checkPositive(String name, Duration duration) {
+        if (duration == null || duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException(name + " must be positive");
+        }
+    }
+
+    /**
+     * 请求是否可以发出
+     *
+     * @param uri      请求地址
+     * @param listener 状态变化监听
+     * @return 可以发出时为true，之后必须调用onResult或release
+     */
+    public boolean tryAcquire(URI uri, Consumer<HttpCircuitStateChange> listener) {
+        final Circuit circuit = circuit(uri);
+        final HttpCircuitStateChange change;
+        final boolean permitted;
+        synchronized (circuit) {
+            change = circuit.transitIfOpenExpired();
+            permitted = circuit.tryAcquire();
+        }
+        publish(change, listener);
+        return permitted;
+    }
+
+    /**
+     * 记录请求结果
+     */
+    public void onResult(URI uri, HttpClientReceiver<?> receiver, Consumer<HttpCircuitStateChange> listener) {
+        final boolean failure = failureOn.test(receiver);
+        final boolean slow = receiver.getCostTime() >= slowCallDuration.toMillis();
+        final Circuit circuit = circuit(uri);
+        final HttpCircuitStateChange change;
+        synchronized (circuit) {
+            change = circuit.record(failure, slow);
+        }
+        publish(change, listener);
+    }
+
+    /**
+     * tryAcquire成功但请求没有发出 (如被限流)，归还半开状态的探测名额
+     */
+    public void release(URI uri) {
+        final Circuit circuit = circuit(uri);
+        synchronized (circuit) {
+            circuit.release();
+        }
+    }
+
+    public HttpCircuitState getState(URI uri) {
+        final Circuit circuit = circuit(uri);
+        synchronized (circuit) {
+            return circuit.state;
+        }
+    }
+
+    /**
+     * 所有主机的状态
+     */
+    public Map<String, HttpCircuitState> getStates() {
+        return circuits
+                .entrySet()
+                .stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> {
+                    synchronized (entry.getValue()) {
+                        return entry.getValue().state;
+                    }
+                }));
+    }
+
+    private Circuit circuit(URI uri) {
+        return circuits.computeIfAbsent(uri.getScheme() + "://" + uri.getAuthority(), Circuit::new);
+    }
+
+    private static void publish(HttpCircuitStateChange change, Consumer<HttpCircuitStateChange> listener) {
+        if (change != null && listener != null) {
+            listener.accept(change);
+        }
+    }
+
+    /**
+     * 单个主机的熔断状态，所有方法在锁内调用
+     */
+    private final class Circuit {
+
+        private final String host;
+
+        private final boolean[] failures = new boolean[windowSize];
+
+        private final boolean[] slows = new boolean[windowSize];
+
+        private HttpCircuitState state = HttpCircuitState.CLOSED;
+
+        private int index;
+
+        private int count;
+
+        private int failureCount;
+
+        private int slowCount;
+
+        private long openedNanos;
+
+        private int halfOpenAcquired;
+
+        private int halfOpenCompleted;
+
+        private int halfOpenFailures;
+
+        private int halfOpenSlows;
+
+        Circuit(String host) {
+            this.host = host;
+        }
+
+        HttpCircuitStateChange transitIfOpenExpired() {
+            if (state == HttpCircuitState.OPEN && System.nanoTime() - openedNanos >= openDuration.toNanos()) {
+                halfOpenAcquired = halfOpenCompleted = halfOpenFailures = halfOpenSlows = 0;
+                return transit(HttpCircuitState.HALF_OPEN, rate(failureCount, count), rate(slowCount, count));
+            }
+            return null;
+        }
+
+        boolean tryAcquire() {
+            switch (state) {
+                case CLOSED:
+                    return true;
+                case HALF_OPEN:
+                    if (halfOpenAcquired < halfOpenCalls) {
+                        halfOpenAcquired++;
+                        return true;
+                    }
+                    return false;
+                default:
+                    return false;
+            }
+        }
+
+        void release() {
+            if (state == HttpCircuitState.HALF_OPEN && halfOpenAcquired > halfOpenCompleted) {
+                halfOpenAcquired--;
+            }
+        }
+
+        HttpCircuitStateChange record(boolean failure, boolean slow) {
+            if (state == HttpCircuitState.CLOSED) {
+                if (count == failures.length) {
+                    failureCount -= failures[index] ? 1 : 0;
+                    slowCount -= slows[index] ? 1 : 0;
+                } else {
+                    count++;
+                }
+                failures[index] = failure;
+                slows[index] = slow;
+                failureCount += failure ? 1 : 0;
+                slowCount += slow ? 1 : 0;
+                index = (index + 1) % failures.length;
+                if (count >= minimumCalls) {
+                    final double failureRate = rate(failureCount, count);
+                    final double slowCallRate = rate(slowCount, count);
+                    if (exceeded(failureRate, slowCallRate)) {
+                        return open(failureRate, slowCallRate);
+                    }
+                }
+            } else if (state == HttpCircuitState.HALF_OPEN && halfOpenCompleted < halfOpenAcquired) {
+                // 打开之前发出、在半开时才返回的请求不计入探测
+                halfOpenCompleted++;
+                halfOpenFailures += failure ? 1 : 0;
+                halfOpenSlows += slow ? 1 : 0;
+                if (halfOpenCompleted >= halfOpenCalls) {
+                    final double failureRate = rate(halfOpenFailures, halfOpenCompleted);
+                    final double slowCallRate = rate(halfOpenSlows, halfOpenCompleted);
+                    if (exceeded(failureRate, slowCallRate)) {
+                        return open(failureRate, slowCallRate);
+                    }
+                    index = count = failureCount = slowCount = 0;
+                    return transit(HttpCircuitState.CLOSED, failureRate, slowCallRate);
+                }
+            }
+            return null;
+        }
+
+        private boolean exceeded(double failureRate, double slowCallRate) {
+            return failureRate >= failureRateThreshold || slowCallRate >= slowCallRateThreshold;
+        }
+
+        private HttpCircuitStateChange open(double failureRate, double slowCallRate) {
+            openedNanos = System.nanoTime();
+            return transit(HttpCircuitState.OPEN, failureRate, slowCallRate);
+        }
+
+        private HttpCircuitStateChange transit(HttpCircuitState to, double failureRate, double slowCallRate) {
+            final HttpCircuitState from = state;
+            state = to;
+            return new HttpCircuitStateChange(host, from, to, failureRate, slowCallRate);
+        }
+
+        private double rate(int part, int total) {
+            return total == 0 ? 0D : part * 100D / total;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package develop.toolkit.base.struct.http;
+
+/**
+ * 熔断器状态
+ *
+ * @author qiushui on 2026-10-17.
+ */
+public enum HttpCircuitState {
+
+    /**
+     * 关闭，请求正常发出并统计结果
+     */
+    CLOSED,
+
+    /**
+     * 打开，请求直接失败不发出
+     */
+    OPEN,
+
+    /**
+     * 半开，放行少量探测请求，根据结果决定关闭还是重新打开
+     */
+    HALF_OPEN
+}
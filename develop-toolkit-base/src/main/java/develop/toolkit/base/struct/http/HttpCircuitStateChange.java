@@ -0,0 +1,38 @@
+package develop.toolkit.base.struct.http;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 熔断器状态变化事件
+ *
+ * @author qiushui on 2026-10-17.
+ */
+@Getter
+@AllArgsConstructor
+public final class HttpCircuitStateChange {
+
+    /**
+     * scheme://host:port
+     */
+    private final String host;
+
+    private final HttpCircuitState from;
+
+    private final HttpCircuitState to;
+
+    /**
+     * 触发变化时的失败率 (百分比)
+     */
+    private final double failureRate;
+
+    /**
+     * 触发变化时的慢调用率 (百分比)
+     */
+    private final double slowCallRate;
+
+    @Override
+    public String toString() {
+        return String.format("%s %s -> %s (failureRate=%.1f%%, slowCallRate=%.1f%%)", host, from, to, failureRate, slowCallRate);
+    }
+}
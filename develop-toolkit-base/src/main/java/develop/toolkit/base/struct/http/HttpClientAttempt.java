@@ -0,0 +1,47 @@
+package develop.toolkit.base.struct.http;
+
+import lombok.Getter;
+
+/**
+ * 一次尝试 (重试或对冲) 的结果
+ *
+ * @author qiushui on 2026-10-17.
+ */
+@Getter
+public final class HttpClientAttempt {
+
+    /**
+     * 完成顺序，从1开始
+     */
+    private final int number;
+
+    /**
+     * 是否是对冲发出的请求
+     */
+    private final boolean hedge;
+
+    private final int httpStatus;
+
+    private final long costTime;
+
+    private final boolean timeout;
+
+    private final boolean limited;
+
+    private final String errorMessage;
+
+    public HttpClientAttempt(int number, boolean hedge, HttpClientReceiver<?> receiver) {
+        this.number = number;
+        this.hedge = hedge;
+        this.httpStatus = receiver.getHttpStatus();
+        this.costTime = receiver.getCostTime();
+        this.timeout = receiver.isTimeout();
+        this.limited = receiver.isLimited();
+        this.errorMessage = receiver.getErrorMessage();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("#%d%s status=%d cost=%dms%s%s%s", number, hedge ? "(hedge)" : "", httpStatus, costTime, timeout ? " timeout" : "", limited ? " limited" : "", errorMessage != null ? " error=" + errorMessage : "");
+    }
+}
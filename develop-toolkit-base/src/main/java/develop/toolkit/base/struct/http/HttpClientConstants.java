@@ -1,17 +1,31 @@
 package develop.toolkit.base.struct.http;
 
-import develop.toolkit.base.utils.StringAdvice;
-
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 常量可以被{{}}占位符取代
+ * 每个不同的模板只解析一次 (缓存有上限，满了整体清空)，替换时单次遍历写入线程内复用的StringBuilder；
+ * 替换进来的值不会再被当作模板解析
  *
  * @author qiushui on 2021-09-17.
  */
 public final class HttpClientConstants {
 
+    private static final int MAX_CACHED_TEMPLATES = 1024;
+
+    /**
+     * 超过这个容量的StringBuilder不留在线程内复用
+     */
+    private static final int MAX_REUSABLE_CAPACITY = 4096;
+
+    private static final Map<String, Template> TEMPLATES = new ConcurrentHashMap<>();
+
+    private static final ThreadLocal<StringBuilder> BUILDER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
     private final Map<String, String> constants = new HashMap<>();
 
     public void putConstant(String key, String value) {
@@ -23,14 +37,100 @@ public final class HttpClientConstants {
     }
 
     public String replace(String string) {
-        if (!constants.isEmpty()) {
-            for (String key : StringAdvice.regexMatchStartEnd(string, "\\{\\{", "\\}\\}")) {
-                final String value = constants.get(key);
+        if (constants.isEmpty() || string == null || !string.contains("{{")) {
+            return string;
+        }
+        return compile(string).render(string, constants);
+    }
+
+    private static Template compile(String string) {
+        Template template = TEMPLATES.get(string);
+        if (template == null) {
+            template = Template.parse(string);
+            if (TEMPLATES.size() >= MAX_CACHED_TEMPLATES) {
+                TEMPLATES.clear();
+            }
+            TEMPLATES.put(string, template);
+        }
+        return template;
+    }
+
+    /**
+     * 编译后的模板：占位符把原字符串分成keys.length + 1段文本，只记录下标不复制
+     */
+    private static final class Template {
+
+        /**
+         * 每个占位符"{{"的下标
+         */
+        private final int[] starts;
+
+        /**
+         * 每个占位符"}}"之后的下标
+         */
+        private final int[] ends;
+
+        private final String[] keys;
+
+        private Template(int[] starts, int[] ends, String[] keys) {
+            this.starts = starts;
+            this.ends = ends;
+            this.keys = keys;
+        }
+
+        /**
+         * 与原先的正则 (?<=\{\{)(.+?)(?=\}\}) 匹配规则一致：键至少一个字符，取最近的"}}"
+         */
+        static Template parse(String string) {
+            final List<int[]> ranges = new ArrayList<>();
+            int from = 0;
+            while (true) {
+                final int open = string.indexOf("{{", from);
+                if (open < 0) {
+                    break;
+                }
+                final int close = string.indexOf("}}", open + 3);
+                if (close < 0) {
+                    break;
+                }
+                ranges.add(new int[]{open, close + 2});
+                from = close + 2;
+            }
+            final int[] starts = new int[ranges.size()];
+            final int[] ends = new int[ranges.size()];
+            final String[] keys = new String[ranges.size()];
+            for (int i = 0; i < keys.length; i++) {
+                starts[i] = ranges.get(i)[0];
+                ends[i] = ranges.get(i)[1];
+                keys[i] = string.substring(starts[i] + 2, ends[i] - 2);
+            }
+            return new Template(starts, ends, keys);
+        }
+
+        String render(String string, Map<String, String> constants) {
+            if (keys.length == 0) {
+                return string;
+            }
+            StringBuilder sb = BUILDER.get();
+            if (sb.capacity() > MAX_REUSABLE_CAPACITY) {
+                sb = new StringBuilder(string.length() + 64);
+                BUILDER.set(sb);
+            }
+            sb.setLength(0);
+            int last = 0;
+            boolean replaced = false;
+            for (int i = 0; i < keys.length; i++) {
+                final String value = constants.get(keys[i]);
                 if (value != null) {
-                    string = string.replace("{{" + key + "}}", value);
+                    sb.append(string, last, starts[i]).append(value);
+                    last = ends[i];
+                    replaced = true;
                 }
             }
+            if (!replaced) {
+                return string;
+            }
+            return sb.append(string, last, string.length()).toString();
         }
-        return string;
     }
 }
@@ -3,6 +3,7 @@ package develop.toolkit.base.struct.http;
 import java.time.Duration;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 /**
  * @author qiushui on 2021-09-17.
@@ -16,4 +17,51 @@ public class HttpClientGlobalOptions {
     public List<HttpPostProcessor> postProcessors = new LinkedList<>(List.of(new PrintLogHttpPostProcessor()));
 
     public HttpClientConstants constants = new HttpClientConstants();
+
+    public HttpClientStats stats = new HttpClientStats();
+
+    /**
+     * sendAsync的执行器，为null时使用HttpClient原生的非阻塞异步发送
+     */
+    public ExecutorService asyncExecutor;
+
+    /**
+     * 限流器，为null时不限流
+     */
+    public HttpRequestLimiter limiter;
+
+    /**
+     * 等待限流许可的最长时间，为null时一直等待
+     */
+    public Duration limiterMaxWait = Duration.ofSeconds(30L);
+
+    /**
+     * GET请求的响应缓存，为null时不缓存
+     */
+    public HttpResponseCache responseCache;
+
+    /**
+     * 相同请求合并，为null时不合并
+     */
+    public HttpSingleFlight singleFlight;
+
+    /**
+     * 熔断器，为null时不熔断
+     */
+    public HttpCircuitBreaker circuitBreaker;
+
+    /**
+     * 重试策略，为null时不重试
+     */
+    public HttpRetryPolicy retryPolicy;
+
+    /**
+     * 对冲策略，为null时不对冲
+     */
+    public HttpHedgePolicy hedgePolicy;
+
+    /**
+     * 整体截止时间 (包括所有重试、对冲和退避等待)，为null时不限制
+     */
+    public Duration deadline;
 }
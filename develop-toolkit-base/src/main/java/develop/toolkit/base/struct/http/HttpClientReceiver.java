@@ -1,12 +1,12 @@
 package develop.toolkit.base.struct.http;
 
-import develop.toolkit.base.utils.IOAdvice;
 import lombok.Getter;
 import lombok.Setter;
 import org.apache.commons.lang3.StringUtils;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.OpenOption;
 import java.nio.file.Path;
@@ -37,6 +37,63 @@ public final class HttpClientReceiver<T> {
 
     private String errorMessage;
 
+    /**
+     * 被限流器拒绝，请求没有发出
+     */
+    private boolean limited;
+
+    /**
+     * 熔断器打开，请求没有发出
+     */
+    private boolean circuitOpen;
+
+    /**
+     * 响应缓存命中情况，没有使用缓存时为null
+     */
+    private HttpCacheStatus cacheStatus;
+
+    /**
+     * 与同时进行的相同请求合并，共享了其它调用方发出的请求的结果
+     */
+    private boolean coalesced;
+
+    /**
+     * 超时或IO异常
+     */
+    private Throwable exception;
+
+    /**
+     * 流式下载续传时临时文件已经完整 (服务端返回416且总长度等于已下载长度)，此时httpStatus为416但下载是成功的
+     */
+    private boolean alreadyComplete;
+
+    /**
+     * 每次尝试的结果 (按完成顺序)，配置了重试或对冲时可能有多次；此时costTime为包括退避等待在内的总耗时
+     */
+    private List<HttpClientAttempt> attempts = List.of();
+
+    /**
+     * 复制一份结果，响应体共享
+     */
+    public HttpClientReceiver<T> copy() {
+        final HttpClientReceiver<T> receiver = new HttpClientReceiver<>();
+        receiver.httpStatus = httpStatus;
+        receiver.headers = headers;
+        receiver.body = body;
+        receiver.costTime = costTime;
+        receiver.connectTimeout = connectTimeout;
+        receiver.readTimeout = readTimeout;
+        receiver.errorMessage = errorMessage;
+        receiver.limited = limited;
+        receiver.circuitOpen = circuitOpen;
+        receiver.cacheStatus = cacheStatus;
+        receiver.coalesced = coalesced;
+        receiver.exception = exception;
+        receiver.alreadyComplete = alreadyComplete;
+        receiver.attempts = attempts;
+        return receiver;
+    }
+
     public String getHeader(String header) {
         return StringUtils.join(headers.getOrDefault(header, List.of()), ";");
     }
@@ -45,8 +102,15 @@ public final class HttpClientReceiver<T> {
         return connectTimeout || readTimeout;
     }
 
+    /**
+     * 响应体是否来自缓存
+     */
+    public boolean isCacheHit() {
+        return cacheStatus == HttpCacheStatus.HIT || cacheStatus == HttpCacheStatus.REVALIDATED;
+    }
+
     public boolean isSuccess() {
-        return errorMessage == null && !isTimeout() && httpStatus >= 200 && httpStatus < 300;
+        return errorMessage == null && !limited && !circuitOpen && !isTimeout() && httpStatus >= 200 && httpStatus < 300;
     }
 
     public void ifSuccess(Consumer<HttpClientReceiver<T>> consumer) {
@@ -56,10 +120,17 @@ public final class HttpClientReceiver<T> {
     }
 
     public void save(Path path, OpenOption... openOptions) {
-        byte[] data;
         if (body instanceof InputStream) {
-            data = IOAdvice.toByteArray((InputStream) body);
-        } else if (body.getClass().isArray()) {
+            // 流直接写入文件，不读进内存
+            try (InputStream inputStream = (InputStream) body; OutputStream outputStream = Files.newOutputStream(path, openOptions)) {
+                inputStream.transferTo(outputStream);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            return;
+        }
+        byte[] data;
+        if (body.getClass().isArray()) {
             data = (byte[]) body;
         } else if (body instanceof String) {
             data = ((String) body).getBytes();
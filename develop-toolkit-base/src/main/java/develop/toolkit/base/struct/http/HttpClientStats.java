@@ -0,0 +1,158 @@
+package develop.toolkit.base.struct.http;
+
+import java.net.http.HttpClient;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Http客户端实时统计
+ * JDK HttpClient没有公开连接池和TLS握手的内部状态，这里统计能从请求侧观察到的部分：
+ * 进行中的请求数 (HTTP/2下即同时打开的流数)、实际协商的协议版本、从发出请求到收到响应头的耗时
+ *
+ * @author qiushui on 2026-10-17.
+ */
+public final class HttpClientStats {
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final LongAccumulator peakInFlight = new LongAccumulator(Math::max, 0L);
+
+    private final LongAdder completed = new LongAdder();
+
+    private final LongAdder http2Responses = new LongAdder();
+
+    private final LongAdder http1Responses = new LongAdder();
+
+    private final LongAdder headersNanos = new LongAdder();
+
+    private final LongAccumulator maxHeadersNanos = new LongAccumulator(Math::max, 0L);
+
+    private final LongAdder retries = new LongAdder();
+
+    private final LongAdder hedges = new LongAdder();
+
+    private final LongAdder hedgeWins = new LongAdder();
+
+    /**
+     * 请求开始
+     *
+     * @return 开始时间 (纳秒)
+     */
+    public long requestStarted() {
+        peakInFlight.accumulate(inFlight.incrementAndGet());
+        return System.nanoTime();
+    }
+
+    /**
+     * 收到响应头
+     */
+    public void headersReceived(HttpClient.Version version, long startNanos) {
+        final long cost = System.nanoTime() - startNanos;
+        headersNanos.add(cost);
+        maxHeadersNanos.accumulate(cost);
+        if (version == HttpClient.Version.HTTP_2) {
+            http2Responses.increment();
+        } else {
+            http1Responses.increment();
+        }
+    }
+
+    /**
+     * 请求结束 (不论成功失败)
+     */
+    public void requestFinished() {
+        inFlight.decrementAndGet();
+        completed.increment();
+    }
+
+    /**
+     * 发起一次重试
+     */
+    public void retried() {
+        retries.increment();
+    }
+
+    /**
+     * 发出一个对冲请求
+     */
+    public void hedged() {
+        hedges.increment();
+    }
+
+    /**
+     * 对冲请求先于原请求返回可用结果
+     */
+    public void hedgeWon() {
+        hedgeWins.increment();
+    }
+
+    /**
+     * 进行中的请求数
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * 进行中请求数的峰值
+     */
+    public long getPeakInFlight() {
+        return peakInFlight.get();
+    }
+
+    public long getCompleted() {
+        return completed.sum();
+    }
+
+    /**
+     * 以HTTP/2响应的数量
+     */
+    public long getHttp2Responses() {
+        return http2Responses.sum();
+    }
+
+    /**
+     * 以HTTP/1.1响应的数量 (包括HTTP/2协商失败回退的)
+     */
+    public long getHttp1Responses() {
+        return http1Responses.sum();
+    }
+
+    /**
+     * 平均收到响应头耗时 (毫秒)，新建连接的请求包含了建连和TLS握手时间
+     */
+    public double getAverageHeadersMillis() {
+        final long responses = http2Responses.sum() + http1Responses.sum();
+        return responses == 0 ? 0D : headersNanos.sum() / (double) responses / TimeUnit.MILLISECONDS.toNanos(1L);
+    }
+
+    /**
+     * 最大收到响应头耗时 (毫秒)
+     */
+    public double getMaxHeadersMillis() {
+        return maxHeadersNanos.get() / (double) TimeUnit.MILLISECONDS.toNanos(1L);
+    }
+
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    public long getHedges() {
+        return hedges.sum();
+    }
+
+    public long getHedgeWins() {
+        return hedgeWins.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "inFlight=%d, peakInFlight=%d, completed=%d, http2=%d, http1=%d, avgHeaders=%.2fms, maxHeaders=%.2fms, retries=%d, hedges=%d, hedgeWins=%d",
+                getInFlight(), getPeakInFlight(), getCompleted(), getHttp2Responses(), getHttp1Responses(), getAverageHeadersMillis(), getMaxHeadersMillis(),
+                getRetries(), getHedges(), getHedgeWins()
+        );
+    }
+}
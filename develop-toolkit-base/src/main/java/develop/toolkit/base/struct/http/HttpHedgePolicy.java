@@ -0,0 +1,131 @@
+package develop.toolkit.base.struct.http;
+
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * 对冲策略
+ * 请求发出后超过对冲延迟仍未返回时，再发出一个相同的请求，先返回的可用结果胜出，其余结果丢弃
+ * 对冲延迟取最近成功请求耗时的百分位 (默认p95)，样本不足时使用initialDelay；
+ * 延迟按本策略实例统计，不同的下游应使用不同的实例
+ * 默认只对冲幂等方法 (GET、HEAD、PUT、DELETE、OPTIONS、TRACE)
+ *
+ * @author qiushui on 2026-10-17.
+ */
+public final class HttpHedgePolicy {
+
+    private static final int WINDOW = 256;
+
+    private static final int MIN_SAMPLES = 20;
+
+    private static final int RECOMPUTE_INTERVAL = 16;
+
+    /**
+     * 最多额外发出的请求数
+     */
+    @Getter
+    private int maxHedges = 1;
+
+    @Getter
+    private double percentile = 95D;
+
+    /**
+     * 样本不足时的对冲延迟
+     */
+    @Getter
+    private Duration initialDelay = Duration.ofMillis(100L);
+
+    /**
+     * 对冲延迟下限
+     */
+    @Getter
+    private Duration minDelay = Duration.ofMillis(5L);
+
+    /**
+     * 是否也对冲非幂等方法 (如POST)
+     */
+    @Getter
+    private boolean nonIdempotent;
+
+    private final long[] samples = new long[WINDOW];
+
+    /**
+     * 记录过的样本数，超过窗口后不再增长 (只需要知道窗口是否填满)
+     */
+    private int sampleCount;
+
+    /**
+     * 距离上次重新计算延迟后记录的样本数
+     */
+    private int sinceRecompute;
+
+    private int sampleIndex;
+
+    private long cachedDelay = -1L;
+
+    public HttpHedgePolicy maxHedges(int maxHedges) {
+        if (maxHedges < 1) {
+            throw new IllegalArgumentException("maxHedges must be at least 1");
+        }
+        this.maxHedges = maxHedges;
+        return this;
+    }
+
+    public HttpHedgePolicy percentile(double percentile) {
+        if (percentile <= 0D || percentile > 100D) {
+            throw new IllegalArgumentException("percentile must be in (0, 100]");
+        }
+        this.percentile = percentile;
+        return this;
+    }
+
+    public HttpHedgePolicy initialDelay(Duration initialDelay) {
+        this.initialDelay = initialDelay;
+        return this;
+    }
+
+    public HttpHedgePolicy minDelay(Duration minDelay) {
+        this.minDelay = minDelay;
+        return this;
+    }
+
+    public HttpHedgePolicy nonIdempotent(boolean nonIdempotent) {
+        this.nonIdempotent = nonIdempotent;
+        return this;
+    }
+
+    /**
+     * 记录一次成功请求的耗时
+     */
+    public synchronized void recordLatency(long costTime) {
+        samples[sampleIndex] = costTime;
+        sampleIndex = (sampleIndex + 1) % WINDOW;
+        if (sampleCount < WINDOW) {
+            sampleCount++;
+        }
+        if (++sinceRecompute >= RECOMPUTE_INTERVAL) {
+            sinceRecompute = 0;
+            cachedDelay = -1L;
+        }
+    }
+
+    /**
+     * 当前的对冲延迟
+     *
+     * @return 毫秒
+     */
+    public synchronized long delayMillis() {
+        if (sampleCount < MIN_SAMPLES) {
+            return initialDelay.toMillis();
+        }
+        if (cachedDelay < 0) {
+            final long[] sorted = Arrays.copyOf(samples, sampleCount);
+            Arrays.sort(sorted);
+            final int index = (int) Math.ceil(percentile / 100D * sorted.length) - 1;
+            cachedDelay = Math.max(minDelay.toMillis(), sorted[Math.max(0, index)]);
+        }
+        return cachedDelay;
+    }
+}
@@ -11,4 +11,11 @@ import develop.toolkit.base.components.HttpClientSender;
 public interface HttpPostProcessor {
 
     void process(HttpClientSender sender, HttpClientReceiver<?> receiver);
+
+    /**
+     * 熔断器状态变化，在触发变化的请求所在线程上调用
+     */
+    default void onCircuitStateChange(HttpClientSender sender, HttpCircuitStateChange change) {
+        // 默认不处理
+    }
 }
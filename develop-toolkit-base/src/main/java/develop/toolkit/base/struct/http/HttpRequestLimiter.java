@@ -0,0 +1,31 @@
+package develop.toolkit.base.struct.http;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Http请求限流器
+ * 发送前获取许可，请求结束(不论成功失败)后释放许可并反馈结果；send和sendAsync都会经过限流器
+ *
+ * @author qiushui on 2026-10-17.
+ */
+public interface HttpRequestLimiter {
+
+    /**
+     * 获取许可
+     *
+     * @param uri     请求地址
+     * @param maxWait 最长等待时间，为null时一直等待
+     * @return 获取到许可时完成为true，等待超过maxWait时完成为false
+     */
+    CompletableFuture<Boolean> acquire(URI uri, Duration maxWait);
+
+    /**
+     * 释放许可，只在acquire得到true之后调用
+     *
+     * @param uri      请求地址
+     * @param receiver 本次请求的结果 (包含耗时costTime)
+     */
+    void release(URI uri, HttpClientReceiver<?> receiver);
+}
@@ -0,0 +1,526 @@
+package develop.toolkit.base.struct.http;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
+import java.net.URI;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * GET请求的响应缓存 (私有缓存)
+ * 遵循Cache-Control (max-age、no-store、no-cache、private)、Expires、Vary，过期后用ETag/Last-Modified发条件请求；
+ * 内存层按总字节数LRU淘汰，可选的磁盘层写穿透存储，内存未命中时从磁盘加载，同样按总字节数LRU淘汰
+ * 缓存键为 方法 + URI + keyHeaders指定的请求头
+ * 缓存在整个helper内共享，带Authorization或Cookie的请求只有在这些请求头加入了keyHeaders时才使用缓存，
+ * 响应带Cache-Control: private时不缓存，避免把一个用户的响应返回给另一个用户
+ *
+ * @author qiushui on 2026-10-17.
+ */
+@Slf4j
+public final class HttpResponseCache {
+
+    private static final Set<Integer> STORABLE_STATUS = Set.of(200, 203);
+
+    /**
+     * 标识用户身份的请求头
+     */
+    private static final List<String> CREDENTIAL_HEADERS = List.of("Authorization", "Cookie");
+
+    private long maxBytes = 32L * 1024 * 1024;
+
+    private long maxEntryBytes = 1024L * 1024;
+
+    private List<String> keyHeaders = List.of();
+
+    private DiskTier diskTier;
+
+    private final LinkedHashMap<String, HttpCacheEntry> memory = new LinkedHashMap<>(16, 0.75F, true);
+
+    private long memoryBytes;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder revalidations = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder stores = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * 内存层的最大总字节数
+     */
+    public HttpResponseCache maxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+        return this;
+    }
+
+    /**
+     * 单个响应体超过这个大小时不缓存
+     */
+    public HttpResponseCache maxEntryBytes(long maxEntryBytes) {
+        this.maxEntryBytes = maxEntryBytes;
+        return this;
+    }
+
+    /**
+     * 参与缓存键的请求头，如Accept、Authorization
+     */
+    public HttpResponseCache keyHeaders(String... keyHeaders) {
+        this.keyHeaders = List.of(keyHeaders);
+        return this;
+    }
+
+    /**
+     * 开启磁盘层
+     *
+     * @param directory 缓存目录，已有的缓存文件会被继续使用
+     * @param maxBytes  磁盘层的最大总字节数
+     */
+    public HttpResponseCache disk(Path directory, long maxBytes) {
+        try {
+            this.diskTier = new DiskTier(directory, maxBytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return this;
+    }
+
+    public String key(String method, URI uri, Map<String, String> requestHeaders) {
+        final StringBuilder sb = new StringBuilder(method).append(' ').append(uri);
+        for (String keyHeader : keyHeaders) {
+            sb.append('\n').append(keyHeader).append(':').append(Objects.toString(header(requestHeaders, keyHeader), ""));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 请求是否可以使用缓存：GET、请求没有Cache-Control: no-store，且带的Authorization/Cookie都在keyHeaders中
+     */
+    public boolean isCacheable(String method, Map<String, String> requestHeaders) {
+        if (!"GET".equalsIgnoreCase(method) || HttpCacheEntry.hasDirective(requestCacheControl(requestHeaders), "no-store")) {
+            return false;
+        }
+        for (String credentialHeader : CREDENTIAL_HEADERS) {
+            if (header(requestHeaders, credentialHeader) != null && keyHeaders.stream().noneMatch(credentialHeader::equalsIgnoreCase)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 缓存条目是否需要重新验证：已过期，或者请求带有Cache-Control: no-cache
+     */
+    public boolean requiresRevalidation(HttpCacheEntry entry, Map<String, String> requestHeaders) {
+        return !entry.isFresh() || HttpCacheEntry.hasDirective(requestCacheControl(requestHeaders), "no-cache");
+    }
+
+    /**
+     * 查找缓存，不论新鲜与否
+     */
+    public HttpCacheEntry lookup(String key, Map<String, String> requestHeaders) {
+        HttpCacheEntry entry;
+        synchronized (memory) {
+            entry = memory.get(key);
+        }
+        if (entry == null && diskTier != null) {
+            entry = diskTier.read(key);
+            if (entry != null) {
+                putMemory(entry);
+            }
+        }
+        return entry != null && entry.matches(requestHeaders) ? entry : null;
+    }
+
+    /**
+     * 包装响应体订阅：可缓存的响应在读完后存入缓存
+     */
+    public <BODY> HttpResponse.BodySubscriber<BODY> store(String key, Map<String, String> requestHeaders, HttpResponse.ResponseInfo responseInfo, HttpResponse.BodySubscriber<BODY> delegate) {
+        final HttpHeaders headers = responseInfo.headers();
+        final String cacheControl = String.join(",", headers.allValues("Cache-Control")).toLowerCase(Locale.ROOT);
+        final List<String> vary = headers
+                .allValues("Vary")
+                .stream()
+                .flatMap(value -> Arrays.stream(value.split(",")))
+                .map(String::trim)
+                .filter(value -> !value.isEmpty())
+                .collect(Collectors.toList());
+        if (!STORABLE_STATUS.contains(responseInfo.statusCode())
+                || HttpCacheEntry.hasDirective(cacheControl, "no-store")
+                || HttpCacheEntry.hasDirective(cacheControl, "private")
+                || vary.contains("*")
+                || headers.firstValueAsLong("Content-Length").orElse(0L) > maxEntryBytes) {
+            return delegate;
+        }
+        final Map<String, String> varyValues = new HashMap<>();
+        for (String name : vary) {
+            varyValues.put(name, Objects.toString(header(requestHeaders, name), ""));
+        }
+        final long responseTime = System.currentTimeMillis();
+        return new TeeSubscriber<>(delegate, bytes -> {
+            final HttpCacheEntry entry = new HttpCacheEntry(key, responseInfo.statusCode(), headers, bytes, varyValues, responseTime);
+            if (entry.isFresh() || entry.hasValidator()) {
+                put(entry);
+            }
+        });
+    }
+
+    /**
+     * 条件请求返回304后更新缓存条目
+     */
+    public HttpCacheEntry revalidated(HttpCacheEntry entry, HttpHeaders notModifiedHeaders) {
+        final HttpCacheEntry updated = entry.revalidate(notModifiedHeaders);
+        put(updated);
+        return updated;
+    }
+
+    /**
+     * 非GET请求成功后使该URI的缓存失效
+     */
+    public void invalidate(URI uri) {
+        final String prefix = "GET " + uri;
+        final List<String> removed = new ArrayList<>();
+        synchronized (memory) {
+            final Iterator<Map.Entry<String, HttpCacheEntry>> iterator = memory.entrySet().iterator();
+            while (iterator.hasNext()) {
+                final Map.Entry<String, HttpCacheEntry> entry = iterator.next();
+                if (entry.getKey().equals(prefix) || entry.getKey().startsWith(prefix + "\n")) {
+                    memoryBytes -= entry.getValue().size();
+                    removed.add(entry.getKey());
+                    iterator.remove();
+                }
+            }
+        }
+        if (diskTier != null) {
+            // 磁盘层按键的摘要命名，键带请求头时只能删掉内存层中出现过的
+            diskTier.delete(prefix);
+            removed.forEach(diskTier::delete);
+        }
+    }
+
+    /**
+     * 记录一次可缓存请求的结果
+     */
+    public void record(HttpCacheStatus status) {
+        switch (status) {
+            case HIT:
+                hits.increment();
+                break;
+            case REVALIDATED:
+                revalidations.increment();
+                break;
+            default:
+                misses.increment();
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getRevalidations() {
+        return revalidations.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getStores() {
+        return stores.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * 命中率 (HIT和REVALIDATED都算命中)
+     */
+    public double getHitRate() {
+        final long hit = hits.sum() + revalidations.sum();
+        final long total = hit + misses.sum();
+        return total == 0 ? 0D : hit / (double) total;
+    }
+
+    public long getMemoryBytes() {
+        synchronized (memory) {
+            return memoryBytes;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "hits=%d, revalidations=%d, misses=%d, hitRate=%.2f, stores=%d, evictions=%d, memoryBytes=%d",
+                getHits(), getRevalidations(), getMisses(), getHitRate(), getStores(), getEvictions(), getMemoryBytes()
+        );
+    }
+
+    private void put(HttpCacheEntry entry) {
+        putMemory(entry);
+        stores.increment();
+        if (diskTier != null) {
+            diskTier.write(entry);
+        }
+    }
+
+    private void putMemory(HttpCacheEntry entry) {
+        synchronized (memory) {
+            final HttpCacheEntry old = memory.put(entry.getKey(), entry);
+            if (old != null) {
+                memoryBytes -= old.size();
+            }
+            memoryBytes += entry.size();
+            final Iterator<HttpCacheEntry> iterator = memory.values().iterator();
+            while (memoryBytes > maxBytes && iterator.hasNext()) {
+                memoryBytes -= iterator.next().size();
+                iterator.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    private static String requestCacheControl(Map<String, String> requestHeaders) {
+        return Objects.toString(header(requestHeaders, "Cache-Control"), "").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 大小写不敏感地取请求头
+     */
+    static String header(Map<String, String> headers, String name) {
+        for (Map.Entry<String, String> entry : headers.entrySet()) {
+            if (entry.getKey().equalsIgnoreCase(name)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 把收到的数据同时复制一份，读完后回调；超过maxEntryBytes时放弃复制
+     */
+    private final class TeeSubscriber<BODY> implements HttpResponse.BodySubscriber<BODY> {
+
+        private final HttpResponse.BodySubscriber<BODY> delegate;
+
+        private final Consumer<byte[]> onComplete;
+
+        private ByteArrayOutputStream copy = new ByteArrayOutputStream();
+
+        TeeSubscriber(HttpResponse.BodySubscriber<BODY> delegate, Consumer<byte[]> onComplete) {
+            this.delegate = delegate;
+            this.onComplete = onComplete;
+        }
+
+        @Override
+        public CompletionStage<BODY> getBody() {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            delegate.onSubscribe(subscription);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> item) {
+            if (copy != null) {
+                for (ByteBuffer buffer : item) {
+                    final ByteBuffer duplicate = buffer.duplicate();
+                    if (copy.size() + duplicate.remaining() > maxEntryBytes) {
+                        copy = null;
+                        break;
+                    }
+                    final byte[] bytes = new byte[duplicate.remaining()];
+                    duplicate.get(bytes);
+                    copy.write(bytes, 0, bytes.length);
+                }
+            }
+            delegate.onNext(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            copy = null;
+            delegate.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            if (copy != null) {
+                try {
+                    onComplete.accept(copy.toByteArray());
+                } catch (RuntimeException e) {
+                    log.warn("Failed to store http response cache: {}", e.getMessage());
+                }
+                copy = null;
+            }
+            delegate.onComplete();
+        }
+    }
+
+    /**
+     * 磁盘层，每个条目一个文件，文件名为键的SHA-256
+     */
+    private static final class DiskTier {
+
+        private final Path directory;
+
+        private final long maxBytes;
+
+        /**
+         * 文件名 -> 文件大小，按访问顺序
+         */
+        private final LinkedHashMap<String, Long> files = new LinkedHashMap<>(16, 0.75F, true);
+
+        private long totalBytes;
+
+        DiskTier(Path directory, long maxBytes) throws IOException {
+            this.directory = Files.createDirectories(directory);
+            this.maxBytes = maxBytes;
+            try (Stream<Path> stream = Files.list(directory)) {
+                stream
+                        .filter(path -> path.getFileName().toString().endsWith(".cache"))
+                        .sorted(Comparator.comparing(path -> path.toFile().lastModified()))
+                        .forEach(path -> {
+                            final long size = path.toFile().length();
+                            files.put(path.getFileName().toString(), size);
+                            totalBytes += size;
+                        });
+            }
+        }
+
+        HttpCacheEntry read(String key) {
+            final String fileName = fileName(key);
+            synchronized (this) {
+                if (files.get(fileName) == null) {
+                    return null;
+                }
+            }
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(directory.resolve(fileName))))) {
+                if (!key.equals(in.readUTF())) {
+                    return null;
+                }
+                final int status = in.readInt();
+                final long responseTime = in.readLong();
+                final Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+                for (int i = in.readInt(); i > 0; i--) {
+                    final String name = in.readUTF();
+                    final List<String> values = new ArrayList<>();
+                    for (int j = in.readInt(); j > 0; j--) {
+                        values.add(in.readUTF());
+                    }
+                    headers.put(name, values);
+                }
+                final Map<String, String> varyValues = new HashMap<>();
+                for (int i = in.readInt(); i > 0; i--) {
+                    varyValues.put(in.readUTF(), in.readUTF());
+                }
+                final byte[] body = new byte[in.readInt()];
+                in.readFully(body);
+                return new HttpCacheEntry(key, status, HttpHeaders.of(headers, (name, value) -> true), body, varyValues, responseTime);
+            } catch (IOException e) {
+                log.warn("Failed to read http response cache file {}: {}", fileName, e.getMessage());
+                delete(key);
+                return null;
+            }
+        }
+
+        void write(HttpCacheEntry entry) {
+            final String fileName = fileName(entry.getKey());
+            final Path file = directory.resolve(fileName);
+            final Path temp = directory.resolve(fileName + ".tmp");
+            try {
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                    out.writeUTF(entry.getKey());
+                    out.writeInt(entry.getHttpStatus());
+                    out.writeLong(entry.getResponseTime());
+                    final Map<String, List<String>> headers = entry.getHeaders().map();
+                    out.writeInt(headers.size());
+                    for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+                        out.writeUTF(header.getKey());
+                        out.writeInt(header.getValue().size());
+                        for (String value : header.getValue()) {
+                            out.writeUTF(value);
+                        }
+                    }
+                    out.writeInt(entry.getVaryValues().size());
+                    for (Map.Entry<String, String> vary : entry.getVaryValues().entrySet()) {
+                        out.writeUTF(vary.getKey());
+                        out.writeUTF(vary.getValue());
+                    }
+                    out.writeInt(entry.getBody().length);
+                    out.write(entry.getBody());
+                }
+                try {
+                    Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+                final long size = Files.size(file);
+                final List<String> evicted = new ArrayList<>();
+                synchronized (this) {
+                    final Long old = files.put(fileName, size);
+                    totalBytes += size - (old == null ? 0L : old);
+                    final Iterator<Map.Entry<String, Long>> iterator = files.entrySet().iterator();
+                    while (totalBytes > maxBytes && iterator.hasNext()) {
+                        final Map.Entry<String, Long> eldest = iterator.next();
+                        totalBytes -= eldest.getValue();
+                        evicted.add(eldest.getKey());
+                        iterator.remove();
+                    }
+                }
+                for (String name : evicted) {
+                    Files.deleteIfExists(directory.resolve(name));
+                }
+            } catch (IOException e) {
+                log.warn("Failed to write http response cache file {}: {}", fileName, e.getMessage());
+            }
+        }
+
+        void delete(String key) {
+            final String fileName = fileName(key);
+            synchronized (this) {
+                final Long size = files.remove(fileName);
+                if (size == null) {
+                    return;
+                }
+                totalBytes -= size;
+            }
+            try {
+                Files.deleteIfExists(directory.resolve(fileName));
+            } catch (IOException e) {
+                log.warn("Failed to delete http response cache file {}: {}", fileName, e.getMessage());
+            }
+        }
+
+        private static String fileName(String key) {
+            try {
+                final byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+                final StringBuilder sb = new StringBuilder(digest.length * 2 + 6);
+                for (byte b : digest) {
+                    sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+                }
+                return sb.append(".cache").toString();
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
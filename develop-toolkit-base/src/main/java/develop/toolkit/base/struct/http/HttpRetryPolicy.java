@@ -0,0 +1,119 @@
+package develop.toolkit.base.struct.http;
+
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+/**
+ * 重试策略
+ * 指数退避加随机抖动：第n次重试前等待 min(maxBackoff, initialBackoff * multiplier^(n-1)) * (1 - jitter * random)
+ * 默认只重试幂等方法 (GET、HEAD、PUT、DELETE、OPTIONS、TRACE)
+ *
+ * @author qiushui on 2026-10-17.
+ */
+@Getter
+public final class HttpRetryPolicy {
+
+    private static final Set<Integer> RETRY_STATUS = Set.of(429, 502, 503, 504);
+
+    /**
+     * 默认重试条件：超时、请求异常 (按getException判断，连接失败的异常信息可能为空)、429、502、503、504；被限流或熔断的请求不重试
+     */
+    public static final Predicate<HttpClientReceiver<?>> DEFAULT_RETRY_ON = receiver -> !receiver.isLimited() && !receiver.isCircuitOpen()
+            && (receiver.isTimeout() || receiver.getException() != null || RETRY_STATUS.contains(receiver.getHttpStatus()));
+
+    /**
+     * 最多尝试次数 (包括第一次)
+     */
+    private int maxAttempts = 3;
+
+    private Duration initialBackoff = Duration.ofMillis(100L);
+
+    private Duration maxBackoff = Duration.ofSeconds(5L);
+
+    private double multiplier = 2D;
+
+    /**
+     * 抖动比例 [0, 1]，1表示在 0 ~ 退避时间 之间完全随机
+     */
+    private double jitter = 0.5D;
+
+    private Predicate<HttpClientReceiver<?>> retryOn = DEFAULT_RETRY_ON;
+
+    /**
+     * 是否也重试非幂等方法 (如POST)
+     */
+    private boolean nonIdempotent;
+
+    public HttpRetryPolicy maxAttempts(int maxAttempts) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be at least 1");
+        }
+        this.maxAttempts = maxAttempts;
+        return this;
+    }
+
+    public HttpRetryPolicy backoff(Duration initialBackoff, Duration maxBackoff) {
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        return this;
+    }
+
+    public HttpRetryPolicy multiplier(double multiplier) {
+        this.multiplier = multiplier;
+        return this;
+    }
+
+    public HttpRetryPolicy jitter(double jitter) {
+        if (jitter < 0D || jitter > 1D) {
+            throw new IllegalArgumentException("jitter must be in [0, 1]");
+        }
+        this.jitter = jitter;
+        return this;
+    }
+
+    /**
+     * 替换重试条件
+     */
+    public HttpRetryPolicy retryOn(Predicate<HttpClientReceiver<?>> retryOn) {
+        this.retryOn = retryOn;
+        return this;
+    }
+
+    /**
+     * 追加重试的响应状态码
+     */
+    public HttpRetryPolicy retryOnStatus(int... statuses) {
+        final Set<Integer> statusSet = Set.of(Arrays.stream(statuses).boxed().toArray(Integer[]::new));
+        this.retryOn = retryOn.or(receiver -> statusSet.contains(receiver.getHttpStatus()));
+        return this;
+    }
+
+    /**
+     * 追加重试的异常类型 (包括子类)
+     */
+    public HttpRetryPolicy retryOnException(Class<? extends Throwable> exceptionClass) {
+        this.retryOn = retryOn.or(receiver -> exceptionClass.isInstance(receiver.getException()));
+        return this;
+    }
+
+    public HttpRetryPolicy nonIdempotent(boolean nonIdempotent) {
+        this.nonIdempotent = nonIdempotent;
+        return this;
+    }
+
+    /**
+     * 第retry次重试前的等待时间
+     *
+     * @param retry 从1开始
+     * @return 毫秒
+     */
+    public long backoffMillis(int retry) {
+        final double base = Math.min(maxBackoff.toMillis(), initialBackoff.toMillis() * Math.pow(multiplier, retry - 1));
+        return (long) (base * (1D - jitter * ThreadLocalRandom.current().nextDouble()));
+    }
+}
@@ -0,0 +1,147 @@
+package develop.toolkit.base.struct.http;
+
+import lombok.Getter;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 相同请求合并 (single-flight)
+ * 方法、URI、请求头、请求体摘要都相同的请求同时进行时，只有第一个(leader)真正发出，其余(follower)等待并共享它的结果
+ * 只合并响应体为String的请求 (send()和sendAsync())，String不可变，可以安全地共享给每个调用方；
+ * 默认只合并幂等方法，POST等合并后只会产生一次副作用，确认可以合并时才开启nonIdempotent
+ *
+ * @author qiushui on 2026-10-17.
+ */
+public final class HttpSingleFlight {
+
+    private static final Set<String> IDEMPOTENT_METHODS = Set.of("GET", "HEAD", "PUT", "DELETE", "OPTIONS", "TRACE");
+
+    private final Map<String, CompletableFuture<HttpClientReceiver<String>>> flights = new ConcurrentHashMap<>();
+
+    private final LongAdder leaders = new LongAdder();
+
+    private final LongAdder deduplicated = new LongAdder();
+
+    private boolean nonIdempotent;
+
+    /**
+     * 是否也合并非幂等方法 (如查询用的POST)
+     */
+    public HttpSingleFlight nonIdempotent(boolean nonIdempotent) {
+        this.nonIdempotent = nonIdempotent;
+        return this;
+    }
+
+    /**
+     * 合并键，不合并时返回null (非幂等方法，或者请求体是流式的multipart)
+     */
+    public String key(String method, URI uri, Map<String, String> headers, HttpRequestBody<?> requestBody) {
+        if (!nonIdempotent && !IDEMPOTENT_METHODS.contains(method.toUpperCase())) {
+            return null;
+        }
+        final byte[] bodyBytes;
+        if (requestBody == null) {
+            bodyBytes = new byte[0];
+        } else if (requestBody instanceof ByteRequestBody) {
+            bodyBytes = ((ByteRequestBody) requestBody).getBody();
+        } else if (requestBody instanceof RawRequestBody || requestBody instanceof FormUrlencodedBody) {
+            bodyBytes = ((String) requestBody.getBody()).getBytes(StandardCharsets.UTF_8);
+        } else {
+            return null;
+        }
+        final StringBuilder sb = new StringBuilder(method.toUpperCase())
+                .append(' ')
+                .append(uri)
+                .append('\n')
+                .append(new TreeMap<>(headers))
+                .append('\n');
+        try {
+            for (byte b : MessageDigest.getInstance("SHA-256").digest(bodyBytes)) {
+                sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 开始一次请求
+     *
+     * @param key 合并键
+     * @return 没有相同的进行中请求时成为leader，必须在结束后调用Flight.complete
+     */
+    public Flight begin(String key) {
+        final CompletableFuture<HttpClientReceiver<String>> future = new CompletableFuture<>();
+        final CompletableFuture<HttpClientReceiver<String>> existing = flights.putIfAbsent(key, future);
+        if (existing == null) {
+            leaders.increment();
+            return new Flight(key, future, true);
+        }
+        deduplicated.increment();
+        return new Flight(key, existing, false);
+    }
+
+    /**
+     * 真正发出的请求数
+     */
+    public long getLeaders() {
+        return leaders.sum();
+    }
+
+    /**
+     * 被合并而没有发出的请求数
+     */
+    public long getDeduplicated() {
+        return deduplicated.sum();
+    }
+
+    /**
+     * 当前进行中的不同请求数
+     */
+    public int getInFlight() {
+        return flights.size();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("leaders=%d, deduplicated=%d, inFlight=%d", getLeaders(), getDeduplicated(), getInFlight());
+    }
+
+    @Getter
+    public final class Flight {
+
+        private final String key;
+
+        private final CompletableFuture<HttpClientReceiver<String>> future;
+
+        private final boolean leader;
+
+        private Flight(String key, CompletableFuture<HttpClientReceiver<String>> future, boolean leader) {
+            this.key = key;
+            this.future = future;
+            this.leader = leader;
+        }
+
+        /**
+         * leader结束，先移除再完成，之后到达的相同请求会重新发出
+         */
+        public void complete(HttpClientReceiver<String> receiver, Throwable throwable) {
+            flights.remove(key, future);
+            if (throwable == null) {
+                future.complete(receiver);
+            } else {
+                future.completeExceptionally(throwable);
+            }
+        }
+    }
+}
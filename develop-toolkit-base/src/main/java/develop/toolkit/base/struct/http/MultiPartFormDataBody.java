@@ -3,16 +3,18 @@ package develop.toolkit.base.struct.http;
 import lombok.Getter;
 import org.apache.commons.lang3.RandomStringUtils;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
 import java.util.function.Supplier;
 
 /**
@@ -20,24 +22,105 @@ import java.util.function.Supplier;
  */
 public final class MultiPartFormDataBody implements HttpRequestBody<byte[]> {
 
+    private static final String NEW_LINE = "\r\n";
+
     private final List<PartsSpecification> partsSpecificationList = new ArrayList<>();
 
     @Getter
     private final String boundary = RandomStringUtils.randomAlphabetic(10);
 
+    /**
+     * 拼装成完整的字节数组
+     * 会把所有part读进内存，发送请求时请使用{@link #bodyPublisher()}
+     */
     @Override
     public byte[] getBody() {
         if (partsSpecificationList.isEmpty()) {
             return new byte[0];
         }
-        addFinalBoundaryPart();
-
-        /*
-         * 直接使用迭代器获取字节数据会报错  Too few bytes returned by the publisher
-         * JDK的bug   参考 https://bugs.openjdk.java.net/browse/JDK-8222968
-         */
-        // return HttpRequest.BodyPublishers.ofByteArrays(PartsIterator::new);
-        return assemble();
+        final CompletableFuture<byte[]> future = new CompletableFuture<>();
+        bodyPublisher().subscribe(new Flow.Subscriber<>() {
+
+            private final List<ByteBuffer> buffers = new ArrayList<>();
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(ByteBuffer item) {
+                buffers.add(item);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                future.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                final int length = buffers.stream().mapToInt(ByteBuffer::remaining).sum();
+                final ByteBuffer data = ByteBuffer.allocate(length);
+                buffers.forEach(data::put);
+                future.complete(data.array());
+            }
+        });
+        return future.join();
+    }
+
+    /**
+     * 流式的请求体
+     * 每个part按顺序直接从源头读取：文件part使用BodyPublishers.ofFile，流part使用BodyPublishers.ofInputStream，
+     * 不在内存里拼装，内存占用与上传大小无关；所有part长度已知时会带上Content-Length，
+     * 存在未声明长度的流part时使用分块传输
+     */
+    public HttpRequest.BodyPublisher bodyPublisher() {
+        if (partsSpecificationList.isEmpty()) {
+            return HttpRequest.BodyPublishers.noBody();
+        }
+        final List<HttpRequest.BodyPublisher> publishers = new ArrayList<>(partsSpecificationList.size() * 3 + 1);
+        try {
+            for (PartsSpecification part : partsSpecificationList) {
+                switch (part.type) {
+                    case STRING: {
+                        publishers.add(ofString(headerText(part.name, null, "text/plain; charset=UTF-8") + part.value + NEW_LINE));
+                        break;
+                    }
+                    case BYTES: {
+                        publishers.add(ofString(headerText(part.name, part.filename, part.contentType)));
+                        publishers.add(HttpRequest.BodyPublishers.ofByteArray(part.bytes));
+                        publishers.add(ofString(NEW_LINE));
+                        break;
+                    }
+                    case FILE: {
+                        final String contentType = Files.probeContentType(part.path);
+                        publishers.add(ofString(headerText(part.name, part.path.getFileName().toString(), contentType == null ? "application/octet-stream" : contentType)));
+                        publishers.add(HttpRequest.BodyPublishers.ofFile(part.path));
+                        publishers.add(ofString(NEW_LINE));
+                        break;
+                    }
+                    case STREAM: {
+                        publishers.add(ofString(headerText(part.name, part.filename, part.contentType)));
+                        if (part.length == 0) {
+                            // fromPublisher不接受长度0，空part不需要打开流
+                            publishers.add(HttpRequest.BodyPublishers.ofByteArray(new byte[0]));
+                        } else {
+                            final HttpRequest.BodyPublisher streamPublisher = HttpRequest.BodyPublishers.ofInputStream(part.stream);
+                            publishers.add(part.length < 0 ? streamPublisher : HttpRequest.BodyPublishers.fromPublisher(streamPublisher, part.length));
+                        }
+                        publishers.add(ofString(NEW_LINE));
+                        break;
+                    }
+                    default:
+                        throw new AssertionError();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        publishers.add(ofString("--" + boundary + "--"));
+        return new ConcatBodyPublisher(publishers);
     }
 
     @Override
@@ -75,27 +158,33 @@ public final class MultiPartFormDataBody implements HttpRequestBody<byte[]> {
     }
 
     public MultiPartFormDataBody addPart(String name, String filename, String contentType, Supplier<InputStream> stream) {
+        return addPart(name, filename, contentType, stream, -1L);
+    }
+
+    /**
+     * 添加已知长度的流part，所有part长度已知时请求可以带上Content-Length而不用分块传输
+     *
+     * @param length 流的字节数，-1表示未知，0表示空part
+     */
+    public MultiPartFormDataBody addPart(String name, String filename, String contentType, Supplier<InputStream> stream, long length) {
+        if (length < -1) {
+            throw new IllegalArgumentException("length must be -1 (unknown) or non-negative, but got " + length);
+        }
         PartsSpecification newPart = new PartsSpecification();
         newPart.type = PartsSpecification.Type.STREAM;
         newPart.name = name;
         newPart.stream = stream;
         newPart.filename = filename;
         newPart.contentType = contentType;
+        newPart.length = length;
         partsSpecificationList.add(newPart);
         return this;
     }
 
-    private void addFinalBoundaryPart() {
-        PartsSpecification newPart = new PartsSpecification();
-        newPart.type = PartsSpecification.Type.FINAL_BOUNDARY;
-        newPart.value = "--" + boundary + "--";
-        partsSpecificationList.add(newPart);
-    }
-
     private static class PartsSpecification {
 
         public enum Type {
-            STRING, FILE, BYTES, STREAM, FINAL_BOUNDARY
+            STRING, FILE, BYTES, STREAM
         }
 
         public Type type;
@@ -106,119 +195,21 @@ public final class MultiPartFormDataBody implements HttpRequestBody<byte[]> {
         public Supplier<InputStream> stream;
         public String filename;
         public String contentType;
-
+        public long length = -1L;
     }
 
-    private class PartsIterator implements Iterator<byte[]> {
-
-        private final Iterator<PartsSpecification> iterator = partsSpecificationList.iterator();
-
-        private InputStream currentInputStream;
-
-        private byte[] nextBytes;
-
-        private static final String NEW_LINE = "\r\n";
-
-        @Override
-        public boolean hasNext() {
-            try {
-                nextBytes = currentInputStream == null ? determineNextPart() : readCurrentInputStream();
-                return nextBytes != null;
-            } catch (IOException e) {
-                throw new UncheckedIOException(e);
-            }
-        }
-
-        @Override
-        public byte[] next() {
-            byte[] result = nextBytes;
-            nextBytes = null;
-            return result;
-        }
-
-        /**
-         * 决定下一个Part
-         */
-        private byte[] determineNextPart() throws IOException {
-            if (!iterator.hasNext()) return null;
-            final PartsSpecification nextPart = iterator.next();
-            switch (nextPart.type) {
-                case FINAL_BOUNDARY: {
-                    return nextPart.value.getBytes(StandardCharsets.UTF_8);
-                }
-                case STRING: {
-                    currentInputStream = new ByteArrayInputStream((nextPart.value).getBytes(StandardCharsets.UTF_8));
-                    return headerBytes(nextPart.name, null, "text/plain; charset=UTF-8");
-                }
-                case BYTES: {
-                    currentInputStream = new ByteArrayInputStream(nextPart.bytes);
-                    return headerBytes(
-                            nextPart.name,
-                            nextPart.filename,
-                            nextPart.contentType
-                    );
-                }
-                case FILE: {
-                    currentInputStream = Files.newInputStream(nextPart.path);
-                    return headerBytes(
-                            nextPart.name,
-                            nextPart.path.getFileName().toString(),
-                            Files.probeContentType(nextPart.path)
-                    );
-                }
-                case STREAM: {
-                    currentInputStream = nextPart.stream.get();
-                    return headerBytes(
-                            nextPart.name,
-                            nextPart.filename,
-                            nextPart.contentType
-                    );
-                }
-                default:
-                    throw new AssertionError();
-            }
-        }
-
-        private byte[] readCurrentInputStream() throws IOException {
-            byte[] buffer = new byte[8192];
-            int r = currentInputStream.read(buffer);
-            if (r > 0) {
-                byte[] actualBytes = new byte[r];
-                System.arraycopy(buffer, 0, actualBytes, 0, r);
-                return actualBytes;
-            } else {
-                currentInputStream.close();
-                currentInputStream = null;
-                return NEW_LINE.getBytes();
-            }
-        }
-
-        private byte[] headerBytes(String name, String filename, String contentType) {
-            StringBuilder sb = new StringBuilder("--")
-                    .append(boundary).append(NEW_LINE)
-                    .append("Content-Disposition: form-data; name=").append(name);
-            if (filename != null) {
-                sb.append("; filename=").append(filename);
-            }
-            sb.append(NEW_LINE).append("Content-Type: ").append(contentType).append(NEW_LINE).append(NEW_LINE);
-            return sb.toString().getBytes(StandardCharsets.UTF_8);
-        }
+    private HttpRequest.BodyPublisher ofString(String text) {
+        return HttpRequest.BodyPublishers.ofByteArray(text.getBytes(StandardCharsets.UTF_8));
     }
 
-    private byte[] assemble() {
-        // 使用以下方法 自己拼装byte[]
-        int length = 0, pos = 0;
-        PartsIterator iteratorForCount = new PartsIterator();
-        while (iteratorForCount.hasNext()) {
-            length += iteratorForCount.next().length;
-        }
-        byte[] data = new byte[length];
-        PartsIterator iteratorForBytes = new PartsIterator();
-        while (iteratorForBytes.hasNext()) {
-            final byte[] nextBytes = iteratorForBytes.next();
-            System.arraycopy(nextBytes, 0, data, pos, nextBytes.length);
-            pos += nextBytes.length;
+    private String headerText(String name, String filename, String contentType) {
+        StringBuilder sb = new StringBuilder("--")
+                .append(boundary).append(NEW_LINE)
+                .append("Content-Disposition: form-data; name=").append(name);
+        if (filename != null) {
+            sb.append("; filename=").append(filename);
         }
-        return data;
+        sb.append(NEW_LINE).append("Content-Type: ").append(contentType).append(NEW_LINE).append(NEW_LINE);
+        return sb.toString();
     }
 }
@@ -0,0 +1,42 @@
+package develop.toolkit.base.struct.http;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 按主机分别限流
+ * 每个 scheme://host:port 第一次请求时通过factory创建一个独立的限流器
+ *
+ * @author qiushui on 2026-10-17.
+ */
+public final class PerHostHttpRequestLimiter implements HttpRequestLimiter {
+
+    private final Supplier<HttpRequestLimiter> factory;
+
+    private final Map<String, HttpRequestLimiter> limiters = new ConcurrentHashMap<>();
+
+    public PerHostHttpRequestLimiter(Supplier<HttpRequestLimiter> factory) {
+        this.factory = factory;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> acquire(URI uri, Duration maxWait) {
+        return getLimiter(uri).acquire(uri, maxWait);
+    }
+
+    @Override
+    public void release(URI uri, HttpClientReceiver<?> receiver) {
+        getLimiter(uri).release(uri, receiver);
+    }
+
+    /**
+     * 主机对应的限流器
+     */
+    public HttpRequestLimiter getLimiter(URI uri) {
+        return limiters.computeIfAbsent(uri.getScheme() + "://" + uri.getAuthority(), key -> factory.get());
+    }
+}
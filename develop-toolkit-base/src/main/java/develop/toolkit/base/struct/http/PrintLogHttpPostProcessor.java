@@ -23,6 +23,11 @@ public final class PrintLogHttpPostProcessor implements HttpPostProcessor {
         }
     }
 
+    @Override
+    public void onCircuitStateChange(HttpClientSender sender, HttpCircuitStateChange change) {
+        log.warn("Circuit breaker state changed: {}", change);
+    }
+
     private void debugPrintLog(HttpClientSender sender, HttpClientReceiver<?> receiver) {
         StringBuilder sb = new StringBuilder("\n=========================================================================================================\n");
         sb
@@ -33,7 +38,11 @@ public final class PrintLogHttpPostProcessor implements HttpPostProcessor {
                 .getHeaders()
                 .forEach((k, v) -> sb.append("    ").append(k).append(": ").append(StringUtils.join(v, ";")).append("\n"));
         sb.append("  body: ").append(sender.getRequestStringBody()).append("\n").append("\nhttp response:\n");
-        if (receiver.isConnectTimeout()) {
+        if (receiver.isLimited()) {
+            sb.append("  (limited)");
+        } else if (receiver.isCircuitOpen()) {
+            sb.append("  (circuit open)");
+        } else if (receiver.isConnectTimeout()) {
             sb.append("  (connect timeout ").append(sender.getHttpClient().connectTimeout().map(Duration::getSeconds).orElse(0L)).append("s)");
         } else if (receiver.isReadTimeout()) {
             sb.append("  (read timeout ").append(sender.getReadTimeout().getSeconds()).append("s)");
@@ -45,6 +54,9 @@ public final class PrintLogHttpPostProcessor implements HttpPostProcessor {
                 sb.append("    ").append(entry.getKey()).append(": ").append(StringUtils.join(entry.getValue(), ";")).append("\n");
             }
             sb.append("  cost: ").append(DateTimeAdvice.millisecondPretty(receiver.getCostTime())).append("\n");
+            if (receiver.getCacheStatus() != null) {
+                sb.append("  cache: ").append(receiver.getCacheStatus()).append("\n");
+            }
             sb.append("  body: ").append(bodyToString(receiver.getBody()));
         }
         sb.append("\n\n=========================================================================================================\n");
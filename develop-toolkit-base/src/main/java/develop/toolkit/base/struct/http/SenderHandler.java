@@ -21,7 +21,7 @@ public interface SenderHandler<BODY> {
         } else if (requestBody instanceof ByteRequestBody) {
             return HttpRequest.BodyPublishers.ofByteArray(((ByteRequestBody) requestBody).getBody());
         } else if (requestBody instanceof MultiPartFormDataBody) {
-            return HttpRequest.BodyPublishers.ofByteArray(((MultiPartFormDataBody) requestBody).getBody());
+            return ((MultiPartFormDataBody) requestBody).bodyPublisher();
         } else {
             throw new AssertionError();
         }
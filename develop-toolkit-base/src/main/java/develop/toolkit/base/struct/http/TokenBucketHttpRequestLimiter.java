@@ -0,0 +1,72 @@
+package develop.toolkit.base.struct.http;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 令牌桶限流
+ * 按固定速率生成令牌，最多积攒burst个；令牌不足时预支下一个令牌并延迟到它生成时放行，预计等待超过maxWait时直接拒绝
+ *
+ * @author qiushui on 2026-10-17.
+ */
+public final class TokenBucketHttpRequestLimiter implements HttpRequestLimiter {
+
+    private final double permitsPerNano;
+
+    private final int burst;
+
+    /**
+     * 当前令牌数，为负数时表示已被预支
+     */
+    private double tokens;
+
+    private long lastRefillNanos;
+
+    /**
+     * @param permitsPerSecond 每秒生成的令牌数
+     * @param burst            最多积攒的令牌数
+     */
+    public TokenBucketHttpRequestLimiter(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive and burst must be at least 1");
+        }
+        this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1L);
+        this.burst = burst;
+        this.tokens = burst;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> acquire(URI uri, Duration maxWait) {
+        final long waitNanos;
+        synchronized (this) {
+            final long now = System.nanoTime();
+            tokens = Math.min(burst, tokens + (now - lastRefillNanos) * permitsPerNano);
+            lastRefillNanos = now;
+            if (tokens >= 1D) {
+                tokens -= 1D;
+                return CompletableFuture.completedFuture(true);
+            }
+            waitNanos = (long) Math.ceil((1D - tokens) / permitsPerNano);
+            if (maxWait != null && waitNanos > maxWait.toNanos()) {
+                return CompletableFuture.completedFuture(false);
+            }
+            tokens -= 1D;
+        }
+        return CompletableFuture.supplyAsync(() -> true, CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public void release(URI uri, HttpClientReceiver<?> receiver) {
+        // 令牌不归还
+    }
+
+    /**
+     * 当前可用令牌数
+     */
+    public synchronized double getAvailableTokens() {
+        return Math.max(0D, Math.min(burst, tokens + (System.nanoTime() - lastRefillNanos) * permitsPerNano));
+    }
+}
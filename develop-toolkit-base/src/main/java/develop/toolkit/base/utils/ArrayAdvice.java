@@ -246,11 +246,15 @@ public final class ArrayAdvice {
      */
     @SafeVarargs
     public static <E> Set<E> intersection(E[] master, E[]... other) {
+        final List<Set<E>> otherSets = new ArrayList<>(other.length);
+        for (E[] array : other) {
+            otherSets.add(new HashSet<>(Arrays.asList(array)));
+        }
         Set<E> set = new HashSet<>();
         a:
         for (E e : master) {
-            for (E[] array : other) {
-                if (!contains(array, e)) continue a;
+            for (Set<E> otherSet : otherSets) {
+                if (!otherSet.contains(e)) continue a;
             }
             set.add(e);
         }
@@ -261,9 +265,10 @@ public final class ArrayAdvice {
      * 差集
      */
     public static <E> Set<E> difference(E[] master, E[] other) {
+        final Set<E> otherSet = new HashSet<>(Arrays.asList(other));
         Set<E> set = new HashSet<>();
         for (E e : master) {
-            if (!contains(other, e)) {
+            if (!otherSet.contains(e)) {
                 set.add(e);
             }
         }
@@ -320,6 +325,37 @@ public final class ArrayAdvice {
         return keyValuePairs;
     }
 
+    /**
+     * 关联 （按键哈希关联）
+     * 将数组target按键与数组master配对，先对target建立索引，复杂度O(n+m)
+     */
+    public static <E, T, K> ListInMap<E, T> associate(E[] master, T[] target, Function<E, K> masterKey, Function<T, K> targetKey) {
+        final ListInMap<K, T> index = grouping(target, targetKey);
+        ListInMap<E, T> map = new ListInMap<>();
+        for (E e : master) {
+            final List<T> matches = index.get(masterKey.apply(e));
+            if (matches != null) {
+                for (T t : matches) {
+                    map.putItem(e, t);
+                }
+            }
+        }
+        return map;
+    }
+
+    /**
+     * 关联 （明确是单个的，按键哈希关联）
+     * 将数组target按键与数组master配对，同键取target中第一个，复杂度O(n+m)
+     */
+    public static <E, T, K> KeyValuePairs<E, T> associateOne(E[] master, T[] target, Function<E, K> masterKey, Function<T, K> targetKey) {
+        final Map<K, T> index = firstIndex(target, targetKey);
+        final KeyValuePairs<E, T> keyValuePairs = new KeyValuePairs<>();
+        for (E e : master) {
+            keyValuePairs.addKeyValue(e, index.get(masterKey.apply(e)));
+        }
+        return keyValuePairs;
+    }
+
     /**
      * 划分
      * 按条件把集合拆分成满足条件和不满足条件的两个集合
@@ -410,6 +446,39 @@ public final class ArrayAdvice {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * 指定排序 （按键哈希匹配）
+     * 把master的元素值按sortTarget的元素值排序，master中同键取第一个，复杂度O(n+m)
+     */
+    public static <T, S, K> List<T> sort(T[] master, S[] sortTarget, Function<T, K> masterKey, Function<S, K> sortKey) {
+        final Map<K, T> index = firstIndex(master, masterKey);
+        List<T> list = new ArrayList<>(sortTarget.length);
+        for (S s : sortTarget) {
+            list.add(index.get(sortKey.apply(s)));
+        }
+        return list;
+    }
+
+    public static <T, S, K> List<T> sort(T[] master, Collection<S> sortTarget, Function<T, K> masterKey, Function<S, K> sortKey) {
+        final Map<K, T> index = firstIndex(master, masterKey);
+        List<T> list = new ArrayList<>(sortTarget.size());
+        for (S s : sortTarget) {
+            list.add(index.get(sortKey.apply(s)));
+        }
+        return list;
+    }
+
+    /**
+     * 按键建立索引，同键保留第一个
+     */
+    private static <T, K> Map<K, T> firstIndex(T[] array, Function<T, K> keyFunction) {
+        final Map<K, T> index = new HashMap<>();
+        for (T t : array) {
+            index.putIfAbsent(keyFunction.apply(t), t);
+        }
+        return index;
+    }
+
     @FunctionalInterface
     public interface PagingProcessor<T> {
 
@@ -1,11 +1,11 @@
 package develop.toolkit.base.utils;
 
 import develop.toolkit.base.components.Counter;
-import develop.toolkit.base.struct.KeyValuePairs;
-import develop.toolkit.base.struct.ListInMap;
-import develop.toolkit.base.struct.TwoValues;
+import develop.toolkit.base.struct.*;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 import java.util.function.*;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -225,6 +225,135 @@ public abstract class CollectionAdvice {
         return counter;
     }
 
+    /**
+     * 分组 （int键，键不装箱）
+     */
+    public static <V> LongKeyMap<List<V>> groupingByInt(Collection<V> collection, ToIntFunction<V> keySupplier) {
+        LongKeyMap<List<V>> map = new LongKeyMap<>();
+        collection.forEach(item -> map.computeIfAbsent(keySupplier.applyAsInt(item), k -> new ArrayList<>()).add(item));
+        return map;
+    }
+
+    /**
+     * 分组 （long键，键不装箱）
+     */
+    public static <V> LongKeyMap<List<V>> groupingByLong(Collection<V> collection, ToLongFunction<V> keySupplier) {
+        LongKeyMap<List<V>> map = new LongKeyMap<>();
+        collection.forEach(item -> map.computeIfAbsent(keySupplier.applyAsLong(item), k -> new ArrayList<>()).add(item));
+        return map;
+    }
+
+    /**
+     * 分组求数量 （int键，键和数量都不装箱）
+     */
+    public static <E> LongCounter groupingCountByInt(Collection<E> collection, ToIntFunction<E> keySupplier) {
+        LongCounter counter = new LongCounter();
+        collection.forEach(item -> counter.add(keySupplier.applyAsInt(item)));
+        return counter;
+    }
+
+    /**
+     * 分组求数量 （long键，键和数量都不装箱）
+     */
+    public static <E> LongCounter groupingCountByLong(Collection<E> collection, ToLongFunction<E> keySupplier) {
+        LongCounter counter = new LongCounter();
+        collection.forEach(item -> counter.add(keySupplier.applyAsLong(item)));
+        return counter;
+    }
+
+    /**
+     * 并行分组
+     * 用fork/join把集合切片，各自分组后再按顺序合并，结果和grouping一致，keySupplier和valueSupplier需要线程安全
+     */
+    public static <E, K, V> ListInMap<K, V> parallelGrouping(Collection<E> collection, Function<E, K> keySupplier, Function<E, V> valueSupplier) {
+        return ForkJoinPool.commonPool().invoke(
+                new SliceTask<E, ListInMap<K, V>>(
+                        toArray(collection),
+                        (array, from, to) -> {
+                            ListInMap<K, V> map = new ListInMap<>(ArrayList::new);
+                            for (int i = from; i < to; i++) {
+                                map.putItem(keySupplier.apply(array[i]), valueSupplier.apply(array[i]));
+                            }
+                            return map;
+                        },
+                        (left, right) -> {
+                            right.forEach((k, list) -> {
+                                final List<V> leftList = left.get(k);
+                                if (leftList == null) {
+                                    left.put(k, list);
+                                } else {
+                                    leftList.addAll(list);
+                                }
+                            });
+                            return left;
+                        }
+                )
+        );
+    }
+
+    public static <K, V> ListInMap<K, V> parallelGrouping(Collection<V> collection, Function<V, K> keySupplier) {
+        return parallelGrouping(collection, keySupplier, Function.identity());
+    }
+
+    /**
+     * 并行分组 （明确键是唯一的）
+     */
+    public static <E, K, V> Map<K, V> parallelGroupingUniqueKey(Collection<E> collection, Function<E, K> keySupplier, Function<E, V> valueSupplier) {
+        return ForkJoinPool.commonPool().invoke(
+                new SliceTask<E, Map<K, V>>(
+                        toArray(collection),
+                        (array, from, to) -> {
+                            Map<K, V> map = new HashMap<>();
+                            for (int i = from; i < to; i++) {
+                                map.put(keySupplier.apply(array[i]), valueSupplier.apply(array[i]));
+                            }
+                            return map;
+                        },
+                        (left, right) -> {
+                            // 后面的值覆盖前面的值，往较大的map里合并
+                            if (left.size() >= right.size()) {
+                                left.putAll(right);
+                                return left;
+                            }
+                            // right中值为null的键也算已存在，不能用putIfAbsent
+                            left.forEach((k, v) -> {
+                                if (!right.containsKey(k)) {
+                                    right.put(k, v);
+                                }
+                            });
+                            return right;
+                        }
+                )
+        );
+    }
+
+    public static <K, V> Map<K, V> parallelGroupingUniqueKey(Collection<V> collection, Function<V, K> keySupplier) {
+        return parallelGroupingUniqueKey(collection, keySupplier, Function.identity());
+    }
+
+    /**
+     * 并行分组求数量
+     * 各切片先用局部HashMap计数，再汇总到同一个Counter
+     */
+    public static <E, K> Counter<K> parallelGroupingCount(Collection<E> collection, Function<E, K> keySupplier) {
+        final Counter<K> counter = new Counter<>();
+        ForkJoinPool.commonPool().invoke(
+                new SliceTask<E, Counter<K>>(
+                        toArray(collection),
+                        (array, from, to) -> {
+                            Map<K, int[]> partial = new HashMap<>();
+                            for (int i = from; i < to; i++) {
+                                partial.computeIfAbsent(keySupplier.apply(array[i]), k -> new int[1])[0]++;
+                            }
+                            partial.forEach((k, count) -> counter.add(k, count[0]));
+                            return counter;
+                        },
+                        (left, right) -> left
+                )
+        );
+        return counter;
+    }
+
     /**
      * 并集
      */
@@ -239,14 +368,19 @@ public abstract class CollectionAdvice {
 
     /**
      * 交集
+     * 总是按equals()/hashCode()判断是否相同，传入的Set也会复制为HashSet，不沿用其自身的比较规则
      */
     @SafeVarargs
     public static <E> Set<E> intersection(Collection<E> master, Collection<E>... other) {
+        final List<Set<E>> otherSets = new ArrayList<>(other.length);
+        for (Collection<E> collection : other) {
+            otherSets.add(new HashSet<>(collection));
+        }
         Set<E> set = new HashSet<>();
         a:
         for (E e : master) {
-            for (Collection<E> collection : other) {
-                if (!contains(collection, e)) continue a;
+            for (Set<E> otherSet : otherSets) {
+                if (!otherSet.contains(e)) continue a;
             }
             set.add(e);
         }
@@ -258,7 +392,7 @@ public abstract class CollectionAdvice {
      */
     public static <E> Set<E> difference(Collection<E> master, Collection<E> other) {
         Set<E> set = new HashSet<>(master);
-        set.removeIf(other::contains);
+        set.removeAll(new HashSet<>(other));
         return set;
     }
 
@@ -305,6 +439,37 @@ public abstract class CollectionAdvice {
         return keyValuePairs;
     }
 
+    /**
+     * 关联 （按键哈希关联）
+     * 将集合target按键与集合master配对，先对target建立索引，复杂度O(n+m)
+     */
+    public static <E, T, K> ListInMap<E, T> associate(Collection<E> master, Collection<T> target, Function<E, K> masterKey, Function<T, K> targetKey) {
+        final ListInMap<K, T> index = grouping(target, targetKey);
+        ListInMap<E, T> map = new ListInMap<>();
+        for (E e : master) {
+            final List<T> matches = index.get(masterKey.apply(e));
+            if (matches != null) {
+                for (T t : matches) {
+                    map.putItem(e, t);
+                }
+            }
+        }
+        return map;
+    }
+
+    /**
+     * 关联 （明确是单个的，按键哈希关联）
+     * 将集合target按键与集合master配对，同键取target中第一个，复杂度O(n+m)
+     */
+    public static <E, T, K> KeyValuePairs<E, T> associateOne(Collection<E> master, Collection<T> target, Function<E, K> masterKey, Function<T, K> targetKey) {
+        final Map<K, T> index = firstIndex(target, targetKey);
+        final KeyValuePairs<E, T> keyValuePairs = new KeyValuePairs<>();
+        for (E e : master) {
+            keyValuePairs.addKeyValue(e, index.get(masterKey.apply(e)));
+        }
+        return keyValuePairs;
+    }
+
     /**
      * 划分
      * 按条件把集合拆分成满足条件和不满足条件的两个集合
@@ -416,6 +581,98 @@ public abstract class CollectionAdvice {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * 指定排序 （按键哈希匹配）
+     * 把master的元素值按sortTarget的元素值排序，master中同键取第一个，复杂度O(n+m)
+     */
+    public static <T, S, K> List<T> sort(Collection<T> master, Collection<S> sortTarget, Function<T, K> masterKey, Function<S, K> sortKey) {
+        final Map<K, T> index = firstIndex(master, masterKey);
+        List<T> list = new ArrayList<>(sortTarget.size());
+        for (S s : sortTarget) {
+            list.add(index.get(sortKey.apply(s)));
+        }
+        return list;
+    }
+
+    public static <T, S, K> List<T> sort(Collection<T> master, S[] sortTarget, Function<T, K> masterKey, Function<S, K> sortKey) {
+        final Map<K, T> index = firstIndex(master, masterKey);
+        List<T> list = new ArrayList<>(sortTarget.length);
+        for (S s : sortTarget) {
+            list.add(index.get(sortKey.apply(s)));
+        }
+        return list;
+    }
+
+    /**
+     * 按键建立索引，同键保留第一个
+     */
+    private static <T, K> Map<K, T> firstIndex(Collection<T> collection, Function<T, K> keyFunction) {
+        final Map<K, T> index = new HashMap<>();
+        for (T t : collection) {
+            index.putIfAbsent(keyFunction.apply(t), t);
+        }
+        return index;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> E[] toArray(Collection<E> collection) {
+        return (E[]) collection.toArray();
+    }
+
+    /**
+     * 并行切片任务
+     */
+    private static final class SliceTask<E, R> extends RecursiveTask<R> {
+
+        private static final long serialVersionUID = 5262358740312254311L;
+
+        /**
+         * 切片阈值
+         */
+        private static final int THRESHOLD = 8192;
+
+        private final E[] array;
+
+        private final int from;
+
+        private final int to;
+
+        private final SliceFunction<E, R> sliceFunction;
+
+        private final BinaryOperator<R> merger;
+
+        SliceTask(E[] array, SliceFunction<E, R> sliceFunction, BinaryOperator<R> merger) {
+            this(array, 0, array.length, sliceFunction, merger);
+        }
+
+        private SliceTask(E[] array, int from, int to, SliceFunction<E, R> sliceFunction, BinaryOperator<R> merger) {
+            this.array = array;
+            this.from = from;
+            this.to = to;
+            this.sliceFunction = sliceFunction;
+            this.merger = merger;
+        }
+
+        @Override
+        protected R compute() {
+            if (to - from <= THRESHOLD) {
+                return sliceFunction.apply(array, from, to);
+            }
+            final int middle = (from + to) >>> 1;
+            final SliceTask<E, R> left = new SliceTask<>(array, from, middle, sliceFunction, merger);
+            final SliceTask<E, R> right = new SliceTask<>(array, middle, to, sliceFunction, merger);
+            left.fork();
+            final R rightResult = right.compute();
+            return merger.apply(left.join(), rightResult);
+        }
+    }
+
+    @FunctionalInterface
+    private interface SliceFunction<E, R> {
+
+        R apply(E[] array, int from, int to);
+    }
+
     @FunctionalInterface
     public interface PagingProcessor<T> {
 
@@ -0,0 +1,94 @@
+package develop.toolkit.base.utils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 线程池增强工具
+ *
+ * @author qiushui on 2026-10-17.
+ */
+@SuppressWarnings("unused")
+public final class ExecutorAdvice {
+
+    /**
+     * JDK21+的Executors.newVirtualThreadPerTaskExecutor()，低版本为null
+     */
+    private static final MethodHandle NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = findVirtualThreadPerTaskExecutor();
+
+    /**
+     * 当前运行的JDK是否支持虚拟线程
+     */
+    public static boolean isVirtualThreadSupported() {
+        return NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    /**
+     * 每个任务一个虚拟线程的线程池 (运行时反射探测，JDK21以下返回empty)
+     */
+    public static Optional<ExecutorService> newVirtualThreadPerTaskExecutor() {
+        if (NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of((ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invokeExact());
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 有界线程池
+     * 线程数固定(空闲时回收)，等待队列有上限，队列满时按rejectedExecutionHandler处理；线程都是守护线程
+     *
+     * @param namePrefix               线程名前缀
+     * @param threads                  线程数
+     * @param queueCapacity            等待队列容量
+     * @param rejectedExecutionHandler 拒绝策略，如ThreadPoolExecutor.AbortPolicy、ThreadPoolExecutor.CallerRunsPolicy；
+     *                                 提交CompletableFuture任务时不要用DiscardPolicy/DiscardOldestPolicy，被丢弃任务的future永远不会完成
+     * @return 线程池
+     */
+    public static ExecutorService newBoundedExecutor(String namePrefix, int threads, int queueCapacity, RejectedExecutionHandler rejectedExecutionHandler) {
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                60L,
+                TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                daemonThreadFactory(namePrefix),
+                rejectedExecutionHandler
+        );
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * 守护线程工厂，线程名为 namePrefix-序号
+     */
+    public static ThreadFactory daemonThreadFactory(String namePrefix) {
+        final AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            final Thread thread = new Thread(runnable, namePrefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static MethodHandle findVirtualThreadPerTaskExecutor() {
+        // JDK19/20上虚拟线程还是预览特性，不开启--enable-preview时调用会抛出异常
+        if (Runtime.version().feature() < 21) {
+            return null;
+        }
+        try {
+            return MethodHandles
+                    .publicLookup()
+                    .findStatic(Executors.class, "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+}
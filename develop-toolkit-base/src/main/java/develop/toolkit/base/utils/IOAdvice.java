@@ -1,15 +1,22 @@
 package develop.toolkit.base.utils;
 
+import develop.toolkit.base.components.BeanBinder;
 import develop.toolkit.base.struct.ListInMap;
 
 import java.io.*;
-import java.lang.reflect.Constructor;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * 输入输出流增强
@@ -19,6 +26,13 @@ import java.util.stream.Stream;
 @SuppressWarnings("unused")
 public final class IOAdvice {
 
+    /**
+     * splitFile内存映射分块的最大和最小大小
+     */
+    private static final long SPLIT_MAX_CHUNK_SIZE = 64 * 1024 * 1024;
+
+    private static final long SPLIT_MIN_CHUNK_SIZE = 1024 * 1024;
+
     /**
      * 转换成字节数组
      */
@@ -65,19 +79,19 @@ public final class IOAdvice {
 
     /**
      * 文本流读取行
+     * 返回的流是惰性的，逐行从BufferedReader读取，不会把整个文件读进内存
+     * 读到末尾或者关闭流时会关闭inputStream，没有读完就丢弃的流需要调用方关闭
      */
     public static Stream<String> readLines(InputStream inputStream, Charset charset) {
-        try (inputStream) {
-            Scanner scanner = new Scanner(inputStream, charset == null ? StandardCharsets.UTF_8 : charset);
-            List<String> lines = new LinkedList<>();
-            while (scanner.hasNext()) {
-                lines.add(scanner.nextLine());
-            }
-            scanner.close();
-            return lines.stream();
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
+        final BufferedReader reader = new BufferedReader(
+                new InputStreamReader(inputStream, charset == null ? StandardCharsets.UTF_8 : charset)
+        );
+        return StreamSupport
+                .stream(
+                        Spliterators.spliteratorUnknownSize(new LineIterator(reader), Spliterator.ORDERED | Spliterator.NONNULL),
+                        false
+                )
+                .onClose(() -> closeQuietly(reader));
     }
 
     /**
@@ -111,31 +125,33 @@ public final class IOAdvice {
     /**
      * 从classpath读取文件并每行用regex切分，然后装填到实体类
      */
-    @SuppressWarnings("unchecked")
     public static <T> Stream<T> splitFromClasspath(String filename, String regex, Class<T> clazz) {
-        List<String[]> list = splitFromClasspath(filename, regex).collect(Collectors.toList());
-        if (list.isEmpty()) {
-            return Stream.empty();
-        } else {
-            final String[] first = list.get(0);
-            final Constructor<?> constructor = ArrayAdvice
-                    .getFirstMatch(clazz.getConstructors(), first.length, Constructor::getParameterCount)
-                    .orElseThrow(() -> new IllegalArgumentException("No match constructor for parameter size: " + first.length));
-            final Class<?>[] parameterTypes = constructor.getParameterTypes();
-            return list
-                    .stream()
-                    .map(objs -> {
-                        try {
-                            final Object[] parameters = new Object[objs.length];
-                            for (int i = 0; i < objs.length; i++) {
-                                parameters[i] = ObjectAdvice.primitiveTypeCast(objs[i], parameterTypes[i]);
-                            }
-                            return (T) constructor.newInstance(parameters);
-                        } catch (Exception e) {
-                            throw new RuntimeException(e);
-                        }
-                    });
+        final BeanBinder<T> binder = BeanBinder.of(clazz);
+        return splitFromClasspath(filename, regex).map(binder::newInstance);
+    }
+
+    /**
+     * 读取文件并每行用单字符delimiter切分 (不使用正则)
+     * 文件按换行对齐切成若干块做内存映射，返回并行流，各块并行解析，需要保持行顺序请使用forEachOrdered或有序收集
+     * 文件需为UTF-8编码，delimiter需为ASCII字符，空行会被跳过
+     */
+    public static Stream<String[]> splitFile(Path path, char delimiter) {
+        if (delimiter >= 0x80) {
+            throw new IllegalArgumentException("delimiter must be an ASCII character");
         }
+        final byte delimiterByte = (byte) delimiter;
+        return mapChunks(path)
+                .parallelStream()
+                .flatMap(chunk -> StreamSupport.stream(new ChunkSplitter(chunk, delimiterByte), false));
+    }
+
+    /**
+     * 读取文件并每行用单字符delimiter切分，然后装填到实体类
+     * 按列数匹配构造方法，构造方法句柄和每列的转换器由BeanBinder缓存
+     */
+    public static <T> Stream<T> splitFile(Path path, char delimiter, Class<T> clazz) {
+        final BeanBinder<T> binder = BeanBinder.of(clazz);
+        return splitFile(path, delimiter).map(binder::newInstance);
     }
 
     /**
@@ -143,7 +159,9 @@ public final class IOAdvice {
      */
     public static <K> ListInMap<K, String[]> splitGroupingFormClasspath(String filename, String regex, Function<String[], K> keyFunction) {
         ListInMap<K, String[]> map = new ListInMap<>();
-        splitFromClasspath(filename, regex).forEach(objs -> map.putItem(keyFunction.apply(objs), objs));
+        try (Stream<String[]> rows = splitFromClasspath(filename, regex)) {
+            rows.forEach(objs -> map.putItem(keyFunction.apply(objs), objs));
+        }
         return map;
     }
 
@@ -152,13 +170,15 @@ public final class IOAdvice {
      */
     public static <K> Map<K, String[]> splitGroupingUniqueFormClasspath(String filename, String regex, Function<String[], K> keyFunction) {
         Map<K, String[]> map = new HashMap<>();
-        splitFromClasspath(filename, regex).forEach(objs -> {
-            K k = keyFunction.apply(objs);
-            if (map.containsKey(k)) {
-                throw new IllegalStateException("exists key \"" + k + "\"");
-            }
-            map.put(k, objs);
-        });
+        try (Stream<String[]> rows = splitFromClasspath(filename, regex)) {
+            rows.forEach(objs -> {
+                K k = keyFunction.apply(objs);
+                if (map.containsKey(k)) {
+                    throw new IllegalStateException("exists key \"" + k + "\"");
+                }
+                map.put(k, objs);
+            });
+        }
         return map;
     }
 
@@ -167,7 +187,9 @@ public final class IOAdvice {
      */
     public static <K, T> ListInMap<K, T> splitGroupingFormClasspath(String filename, String regex, Class<T> clazz, Function<T, K> keyFunction) {
         ListInMap<K, T> map = new ListInMap<>();
-        splitFromClasspath(filename, regex, clazz).forEach(t -> map.putItem(keyFunction.apply(t), t));
+        try (Stream<T> rows = splitFromClasspath(filename, regex, clazz)) {
+            rows.forEach(t -> map.putItem(keyFunction.apply(t), t));
+        }
         return map;
     }
 
@@ -176,7 +198,9 @@ public final class IOAdvice {
      */
     public static <K, V> ListInMap<K, V> splitGroupingFormClasspath(String filename, String regex, Function<String[], K> keyFunction, Function<String[], V> valueFunction) {
         ListInMap<K, V> map = new ListInMap<>();
-        splitFromClasspath(filename, regex).forEach(objs -> map.putItem(keyFunction.apply(objs), valueFunction.apply(objs)));
+        try (Stream<String[]> rows = splitFromClasspath(filename, regex)) {
+            rows.forEach(objs -> map.putItem(keyFunction.apply(objs), valueFunction.apply(objs)));
+        }
         return map;
     }
 
@@ -185,7 +209,9 @@ public final class IOAdvice {
      */
     public static <K, V, T> ListInMap<K, V> splitGroupingFormClasspath(String filename, String regex, Class<T> clazz, Function<T, K> keyFunction, Function<T, V> valueFunction) {
         ListInMap<K, V> map = new ListInMap<>();
-        splitFromClasspath(filename, regex, clazz).forEach(t -> map.putItem(keyFunction.apply(t), valueFunction.apply(t)));
+        try (Stream<T> rows = splitFromClasspath(filename, regex, clazz)) {
+            rows.forEach(t -> map.putItem(keyFunction.apply(t), valueFunction.apply(t)));
+        }
         return map;
     }
 
@@ -194,13 +220,15 @@ public final class IOAdvice {
      */
     public static <K, V> Map<K, V> splitGroupingUniqueFormClasspath(String filename, String regex, Function<String[], K> keyFunction, Function<String[], V> valueFunction) {
         Map<K, V> map = new HashMap<>();
-        splitFromClasspath(filename, regex).forEach(objs -> {
-            K k = keyFunction.apply(objs);
-            if (map.containsKey(k)) {
-                throw new IllegalStateException("exists key \"" + k + "\"");
-            }
-            map.put(k, valueFunction.apply(objs));
-        });
+        try (Stream<String[]> rows = splitFromClasspath(filename, regex)) {
+            rows.forEach(objs -> {
+                K k = keyFunction.apply(objs);
+                if (map.containsKey(k)) {
+                    throw new IllegalStateException("exists key \"" + k + "\"");
+                }
+                map.put(k, valueFunction.apply(objs));
+            });
+        }
         return map;
     }
 
@@ -209,7 +237,9 @@ public final class IOAdvice {
      */
     public static String readText(InputStream inputStream, Charset charset) {
         StringBuilder sb = new StringBuilder();
-        readLines(inputStream, charset).forEach(line -> sb.append(line.trim()));
+        try (Stream<String> lines = readLines(inputStream, charset)) {
+            lines.forEach(line -> sb.append(line.trim()));
+        }
         return sb.toString();
     }
 
@@ -218,7 +248,9 @@ public final class IOAdvice {
      */
     public static String readText(InputStream inputStream) {
         StringBuilder sb = new StringBuilder();
-        readLines(inputStream).forEach(line -> sb.append(line.trim()));
+        try (Stream<String> lines = readLines(inputStream)) {
+            lines.forEach(line -> sb.append(line.trim()));
+        }
         return sb.toString();
     }
 
@@ -227,7 +259,9 @@ public final class IOAdvice {
      */
     public static String readTextFromClasspath(String filename, Charset charset) {
         StringBuilder sb = new StringBuilder();
-        readLinesFromClasspath(filename, charset).forEach(line -> sb.append(line.trim()));
+        try (Stream<String> lines = readLinesFromClasspath(filename, charset)) {
+            lines.forEach(line -> sb.append(line.trim()));
+        }
         return sb.toString();
     }
 
@@ -236,7 +270,9 @@ public final class IOAdvice {
      */
     public static String readTextFromClasspath(String filename) {
         StringBuilder sb = new StringBuilder();
-        readLinesFromClasspath(filename).forEach(line -> sb.append(line.trim()));
+        try (Stream<String> lines = readLinesFromClasspath(filename)) {
+            lines.forEach(line -> sb.append(line.trim()));
+        }
         return sb.toString();
     }
 
@@ -303,17 +339,18 @@ public final class IOAdvice {
      * 复制文本
      */
     public static void copyText(InputStream inputStream, OutputStream outputStream, Charset charset, Function<String, String> function) {
-        Scanner scanner = new Scanner(inputStream, charset);
-        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(outputStream, charset))) {
-            while (scanner.hasNext()) {
-                String line = function.apply(scanner.nextLine());
-                writer.write(line);
+        try (
+                BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, charset));
+                BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(outputStream, charset))
+        ) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                writer.write(function.apply(line));
                 writer.newLine();
             }
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
-        scanner.close();
     }
 
     /**
@@ -337,21 +374,27 @@ public final class IOAdvice {
      * 打印文件
      */
     public static void printFile(String filename, Charset charset) {
-        readLines(filename, charset).forEach(System.out::println);
+        try (Stream<String> lines = readLines(filename, charset)) {
+            lines.forEach(System.out::println);
+        }
     }
 
     /**
      * 打印流文件
      */
     public static void printInputStream(InputStream inputStream, Charset charset) {
-        readLines(inputStream, charset).forEach(System.out::println);
+        try (Stream<String> lines = readLines(inputStream, charset)) {
+            lines.forEach(System.out::println);
+        }
     }
 
     /**
      * 打印流文件
      */
     public static void printInputStream(InputStream inputStream) {
-        readLines(inputStream, StandardCharsets.UTF_8).forEach(System.out::println);
+        try (Stream<String> lines = readLines(inputStream, StandardCharsets.UTF_8)) {
+            lines.forEach(System.out::println);
+        }
     }
 
     /**
@@ -375,4 +418,163 @@ public final class IOAdvice {
         }
         return transferred;
     }
+
+    /**
+     * 把文件按换行对齐切块并内存映射
+     * 映射建立后关闭通道不影响映射的读取
+     */
+    private static List<MappedByteBuffer> mapChunks(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            // 小文件也切成足够多的块，让每个并行线程都有活干
+            final long chunkSize = Math.max(
+                    SPLIT_MIN_CHUNK_SIZE,
+                    Math.min(SPLIT_MAX_CHUNK_SIZE, size / (ForkJoinPool.getCommonPoolParallelism() * 4L))
+            );
+            final List<MappedByteBuffer> chunks = new ArrayList<>((int) (size / chunkSize) + 1);
+            final ByteBuffer probe = ByteBuffer.allocate(8192);
+            long start = 0;
+            while (start < size) {
+                long end = Math.min(start + chunkSize, size);
+                // 块边界向后对齐到下一个换行符之后
+                boolean aligned = false;
+                while (!aligned && end < size) {
+                    probe.clear();
+                    final int read = channel.read(probe, end);
+                    int i = 0;
+                    while (i < read && probe.get(i) != '\n') {
+                        i++;
+                    }
+                    aligned = i < read;
+                    end = aligned ? end + i + 1 : end + read;
+                }
+                if (end - start > Integer.MAX_VALUE) {
+                    throw new IllegalStateException("line is too long to map: " + path);
+                }
+                chunks.add(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start));
+                start = end;
+            }
+            return chunks;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 关闭并忽略异常，读取已经结束或已经失败时关闭的异常没有处理的意义
+     */
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException ignored) {
+            // 忽略关闭异常
+        }
+    }
+
+    /**
+     * 逐块切分，一个块内顺序解析
+     */
+    private static final class ChunkSplitter extends Spliterators.AbstractSpliterator<String[]> {
+
+        private final ByteBuffer buffer;
+
+        private final byte delimiter;
+
+        private final List<String> fields = new ArrayList<>();
+
+        private byte[] line = new byte[256];
+
+        ChunkSplitter(ByteBuffer buffer, byte delimiter) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.buffer = buffer;
+            this.delimiter = delimiter;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super String[]> action) {
+            while (buffer.hasRemaining()) {
+                int length = 0;
+                while (buffer.hasRemaining()) {
+                    final byte b = buffer.get();
+                    if (b == '\n') {
+                        break;
+                    }
+                    if (length == line.length) {
+                        line = Arrays.copyOf(line, length << 1);
+                    }
+                    line[length++] = b;
+                }
+                if (length > 0 && line[length - 1] == '\r') {
+                    length--;
+                }
+                if (length > 0) {
+                    action.accept(split(length));
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private String[] split(int length) {
+            fields.clear();
+            int start = 0;
+            for (int i = 0; i < length; i++) {
+                if (line[i] == delimiter) {
+                    fields.add(new String(line, start, i - start, StandardCharsets.UTF_8));
+                    start = i + 1;
+                }
+            }
+            fields.add(new String(line, start, length - start, StandardCharsets.UTF_8));
+            return fields.toArray(new String[0]);
+        }
+    }
+
+    /**
+     * 逐行读取的迭代器，读到末尾时自动关闭reader
+     */
+    private static final class LineIterator implements Iterator<String> {
+
+        private final BufferedReader reader;
+
+        private String nextLine;
+
+        private boolean finished;
+
+        LineIterator(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (nextLine != null) {
+                return true;
+            }
+            if (finished) {
+                return false;
+            }
+            try {
+                nextLine = reader.readLine();
+            } catch (IOException e) {
+                finished = true;
+                closeQuietly(reader);
+                throw new UncheckedIOException(e);
+            }
+            if (nextLine == null) {
+                finished = true;
+                closeQuietly(reader);
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        public String next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final String line = nextLine;
+            nextLine = null;
+            return line;
+        }
+    }
 }
@@ -1,9 +1,8 @@
 package develop.toolkit.base.utils;
 
+import develop.toolkit.base.components.BeanBinder;
 import lombok.NonNull;
 import lombok.SneakyThrows;
-import org.apache.commons.lang3.reflect.FieldUtils;
-import org.apache.commons.lang3.reflect.MethodUtils;
 
 import java.lang.reflect.Field;
 import java.util.HashMap;
@@ -45,24 +44,15 @@ public final class ObjectAdvice {
 
     /**
      * 反射设置值
+     * 读写器按类由BeanBinder缓存，只在首次访问时解析
      *
      * @param instance             实例
      * @param field                字段
      * @param value                值
      * @param firstUseSetterMethod 优先使用setter方法
      */
-    @SneakyThrows
     public static void set(Object instance, Field field, Object value, boolean firstUseSetterMethod) {
-        if (firstUseSetterMethod) {
-            try {
-                final String setterMethodName = JavaBeanUtils.getSetterMethodName(field.getName());
-                MethodUtils.invokeMethod(instance, true, setterMethodName);
-            } catch (NoSuchMethodException e) {
-                FieldUtils.writeField(field, instance, value, true);
-            }
-        } else {
-            FieldUtils.writeField(field, instance, value, true);
-        }
+        set(instance, field.getName(), value, firstUseSetterMethod);
     }
 
     /**
@@ -73,17 +63,12 @@ public final class ObjectAdvice {
      * @param value                值
      * @param firstUseSetterMethod 优先使用setter方法
      */
-    @SneakyThrows
     public static void set(Object instance, String fieldName, Object value, boolean firstUseSetterMethod) {
+        final BeanBinder<Object> binder = binder(instance);
         if (firstUseSetterMethod) {
-            try {
-                final String setterMethodName = JavaBeanUtils.getSetterMethodName(fieldName);
-                MethodUtils.invokeMethod(instance, true, setterMethodName);
-            } catch (NoSuchMethodException e) {
-                FieldUtils.writeField(instance, fieldName, value, true);
-            }
+            binder.setter(fieldName).accept(instance, value);
         } else {
-            FieldUtils.writeField(instance, fieldName, value, true);
+            binder.fieldSetter(fieldName).accept(instance, value);
         }
     }
 
@@ -95,18 +80,8 @@ public final class ObjectAdvice {
      * @param firstUseGetterMethod 优先使用getter方法
      * @return 反射值
      */
-    @SneakyThrows
     public static Object get(Object instance, Field field, boolean firstUseGetterMethod) {
-        if (firstUseGetterMethod) {
-            try {
-                final String getterMethodName = JavaBeanUtils.getGetterMethodName(field.getName(), field.getType());
-                return MethodUtils.invokeMethod(instance, true, getterMethodName);
-            } catch (NoSuchMethodException e) {
-                return FieldUtils.readField(instance, field.getName(), true);
-            }
-        } else {
-            return FieldUtils.readField(instance, field.getName(), true);
-        }
+        return get(instance, field.getName(), firstUseGetterMethod);
     }
 
     /**
@@ -117,18 +92,12 @@ public final class ObjectAdvice {
      * @param firstUseGetterMethod 优先使用getter方法
      * @return 反射值
      */
-    @SneakyThrows
     public static Object get(Object instance, String fieldName, boolean firstUseGetterMethod) {
+        final BeanBinder<Object> binder = binder(instance);
         if (firstUseGetterMethod) {
-            try {
-                Field field = instance.getClass().getField(fieldName);
-                final String getterMethodName = JavaBeanUtils.getGetterMethodName(fieldName, field.getType());
-                return MethodUtils.invokeMethod(instance, true, getterMethodName);
-            } catch (NoSuchMethodException e) {
-                return FieldUtils.readField(instance, fieldName, true);
-            }
+            return binder.getter(fieldName).apply(instance);
         } else {
-            return FieldUtils.readField(instance, fieldName, true);
+            return binder.fieldGetter(fieldName).apply(instance);
         }
     }
 
@@ -139,14 +108,49 @@ public final class ObjectAdvice {
      * @return 所有字段值
      */
     public static Map<Field, Object> readAllFieldValue(Object instance) {
-        Map<Field, Object> map = new HashMap<>();
-        Field[] fields = FieldUtils.getAllFields(instance.getClass());
-        for (Field field : fields) {
-            map.put(field, get(instance, field, true));
+        final BeanBinder<Object> binder = binder(instance);
+        final Field[] fields = binder.getFields();
+        final Object[] values = binder.readAll(instance);
+        final Map<Field, Object> map = new HashMap<>((int) (fields.length / 0.75f) + 1);
+        for (int i = 0; i < fields.length; i++) {
+            map.put(fields[i], values[i]);
         }
         return map;
     }
 
+    /**
+     * 读取全部字段值 (扁平数组)
+     *
+     * @param instance 实例
+     * @return 与getAllFields(instance.getClass())下标对应的值数组
+     */
+    public static Object[] readAllFieldValues(Object instance) {
+        return binder(instance).readAll(instance);
+    }
+
+    /**
+     * 写入全部字段值 (扁平数组，优先使用setter方法)
+     * static和final字段不写入，对应下标的值被忽略
+     *
+     * @param instance 实例
+     * @param values   与getAllFields(instance.getClass())下标对应的值数组
+     */
+    public static void writeAllFieldValues(Object instance, Object[] values) {
+        binder(instance).writeAll(instance, values);
+    }
+
+    /**
+     * 本类及所有父类声明的字段 (已缓存)，顺序和readAllFieldValues/writeAllFieldValues的下标一致
+     */
+    public static Field[] getAllFields(Class<?> clazz) {
+        return BeanBinder.of(clazz).getFields();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BeanBinder<Object> binder(Object instance) {
+        return (BeanBinder<Object>) BeanBinder.of(instance.getClass());
+    }
+
     /**
      * 安静地使用无参构造方法new对象
      */
@@ -1,14 +1,16 @@
 package develop.toolkit.base.utils;
 
+import develop.toolkit.base.components.CompiledMatcher;
 import develop.toolkit.base.struct.TwoValues;
+import develop.toolkit.base.struct.UrlEncoded;
 
-import java.net.URLEncoder;
+import java.lang.reflect.Array;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -21,6 +23,12 @@ import java.util.stream.Stream;
 @SuppressWarnings("unused")
 public final class StringAdvice {
 
+    private static final int MAX_CACHED_PATTERNS = 512;
+
+    private static final Map<String, Pattern> PATTERNS = new ConcurrentHashMap<>();
+
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
     /**
      * 判断是null和空
      */
@@ -87,20 +95,44 @@ public final class StringAdvice {
      * 正则取值
      */
     public static List<String> regexMatch(String string, String regex) {
-        Pattern pattern = Pattern.compile(regex);
-        Matcher matcher = pattern.matcher(string);
-        List<String> list = new ArrayList<>(matcher.groupCount());
-        while (matcher.find()) {
-            list.add(matcher.group());
-        }
-        return list;
+        return compile(regex).findAll(string);
     }
 
     /**
      * 正则开头结尾匹配抓取中间字符串值
      */
     public static List<String> regexMatchStartEnd(String string, String start, String end) {
-        return regexMatch(string, String.format("(?<=%s)(.+?)(?=%s)", start, end));
+        return regexMatch(string, "(?<=" + start + ")(.+?)(?=" + end + ")");
+    }
+
+    /**
+     * 整个字符串是否匹配正则，等价于String.matches但正则只编译一次，null返回false
+     */
+    public static boolean regexMatches(String string, String regex) {
+        return string != null && pattern(regex).matcher(string).matches();
+    }
+
+    /**
+     * 取缓存的编译后正则
+     * 缓存有上限 (满了整体清空)，动态拼接出大量不同正则的场景也不会无限增长
+     */
+    public static Pattern pattern(String regex) {
+        Pattern pattern = PATTERNS.get(regex);
+        if (pattern == null) {
+            pattern = Pattern.compile(regex);
+            if (PATTERNS.size() >= MAX_CACHED_PATTERNS) {
+                PATTERNS.clear();
+            }
+            PATTERNS.put(regex, pattern);
+        }
+        return pattern;
+    }
+
+    /**
+     * 预编译的匹配器，适合作为常量持有
+     */
+    public static CompiledMatcher compile(String regex) {
+        return new CompiledMatcher(pattern(regex));
     }
 
     /**
@@ -112,17 +144,96 @@ public final class StringAdvice {
 
     /**
      * 处理成url参数格式
+     * 值为Collection或数组时展开成多个同名参数，值为UrlEncoded时不再编码，null值(包括展开后的元素)跳过
      */
-    public static String urlParametersFormat(Map<String, Object> parameters, boolean needQuestionMark) {
+    public static String urlParametersFormat(Map<String, ?> parameters, boolean needQuestionMark) {
         if (parameters == null || parameters.isEmpty()) {
             return "";
         }
-        return (needQuestionMark ? "?" : "") + parameters
-                .entrySet()
-                .stream()
-                .filter(kv -> kv.getValue() != null)
-                .map(kv -> String.format("%s=%s", kv.getKey(), URLEncoder.encode(kv.getValue().toString(), StandardCharsets.UTF_8)))
-                .collect(Collectors.joining("&"));
+        StringBuilder sb = new StringBuilder(parameters.size() * 16);
+        for (Map.Entry<String, ?> entry : parameters.entrySet()) {
+            final Object value = entry.getValue();
+            if (value instanceof Collection) {
+                for (Object element : (Collection<?>) value) {
+                    appendUrlParameter(sb, entry.getKey(), element);
+                }
+            } else if (value != null && value.getClass().isArray()) {
+                for (int i = 0, length = Array.getLength(value); i < length; i++) {
+                    appendUrlParameter(sb, entry.getKey(), Array.get(value, i));
+                }
+            } else {
+                appendUrlParameter(sb, entry.getKey(), value);
+            }
+        }
+        if (sb.length() == 0) {
+            return "";
+        }
+        if (needQuestionMark) {
+            sb.setCharAt(0, '?');
+            return sb.toString();
+        }
+        return sb.substring(1);
+    }
+
+    private static void appendUrlParameter(StringBuilder sb, String key, Object value) {
+        if (value == null) {
+            return;
+        }
+        sb.append('&').append(key).append('=');
+        if (value instanceof UrlEncoded) {
+            sb.append(((UrlEncoded) value).getValue());
+        } else {
+            urlEncode(sb, value.toString());
+        }
+    }
+
+    /**
+     * URL编码 (UTF-8)，结果与URLEncoder.encode一致
+     */
+    public static String urlEncode(String string) {
+        for (int i = 0, length = string.length(); i < length; i++) {
+            if (!isUrlUnreserved(string.charAt(i))) {
+                StringBuilder sb = new StringBuilder(length + 16);
+                urlEncode(sb, string);
+                return sb.toString();
+            }
+        }
+        return string;
+    }
+
+    /**
+     * URL编码追加到sb
+     * 不需要编码的ASCII字符直接追加，其余的连续一段按UTF-8转字节后%XX编码，空格转为+
+     */
+    public static void urlEncode(StringBuilder sb, String string) {
+        final int length = string.length();
+        int i = 0;
+        while (i < length) {
+            final char c = string.charAt(i);
+            if (isUrlUnreserved(c)) {
+                sb.append(c);
+                i++;
+            } else if (c == ' ') {
+                sb.append('+');
+                i++;
+            } else {
+                int end = i + 1;
+                while (end < length && !isUrlUnreserved(string.charAt(end)) && string.charAt(end) != ' ') {
+                    end++;
+                }
+                for (byte b : string.substring(i, end).getBytes(StandardCharsets.UTF_8)) {
+                    sb.append('%').append(HEX_DIGITS[(b >> 4) & 0xF]).append(HEX_DIGITS[b & 0xF]);
+                }
+                i = end;
+            }
+        }
+    }
+
+    /**
+     * URLEncoder不编码的字符：字母、数字和 .-*_
+     */
+    private static boolean isUrlUnreserved(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '.' || c == '-' || c == '*' || c == '_';
     }
 
     /**
@@ -0,0 +1,100 @@
+package develop.toolkit.benchmark;
+
+import com.github.developframework.expression.ExpressionUtils;
+import develop.toolkit.base.components.BeanBinder;
+import develop.toolkit.base.utils.ArrayAdvice;
+import develop.toolkit.base.utils.ObjectAdvice;
+import lombok.Getter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.Constructor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * BeanBinder基准测试
+ * construct/read 的 reflective 是改为BeanBinder之前的逐行反射路径，作为对照组
+ *
+ * @author qiushui on 2026-10-17.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BeanBinderBenchmark {
+
+    private static final String[] PROPERTIES = {"id", "name", "age", "score", "vip"};
+
+    private final String[] columns = {"10086", "用户10086", "32", "98.5", "true"};
+
+    private final Row row = new Row(10086L, "用户10086", 32, 98.5D, true);
+
+    private BeanBinder<Row> binder;
+
+    private Function<Row, Object>[] getters;
+
+    private Constructor<?> constructor;
+
+    @Setup
+    public void setup() {
+        binder = BeanBinder.of(Row.class);
+        getters = binder.getters(PROPERTIES);
+        constructor = ArrayAdvice
+                .getFirstMatch(Row.class.getConstructors(), columns.length, Constructor::getParameterCount)
+                .orElseThrow();
+    }
+
+    @Benchmark
+    public Row constructByBinder() {
+        return binder.newInstance(columns);
+    }
+
+    @Benchmark
+    public Object constructByReflection() throws Exception {
+        final Class<?>[] parameterTypes = constructor.getParameterTypes();
+        final Object[] parameters = new Object[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            parameters[i] = ObjectAdvice.primitiveTypeCast(columns[i], parameterTypes[i]);
+        }
+        return constructor.newInstance(parameters);
+    }
+
+    @Benchmark
+    public void readByBinder(Blackhole blackhole) {
+        for (Function<Row, Object> getter : getters) {
+            blackhole.consume(getter.apply(row));
+        }
+    }
+
+    @Benchmark
+    public void readByExpression(Blackhole blackhole) {
+        for (String property : PROPERTIES) {
+            blackhole.consume(ExpressionUtils.getValue(row, property));
+        }
+    }
+
+    @Getter
+    public static class Row {
+
+        private final long id;
+
+        private final String name;
+
+        private final int age;
+
+        private final double score;
+
+        private final boolean vip;
+
+        public Row(long id, String name, int age, double score, boolean vip) {
+            this.id = id;
+            this.name = name;
+            this.age = age;
+            this.score = score;
+            this.vip = vip;
+        }
+    }
+}
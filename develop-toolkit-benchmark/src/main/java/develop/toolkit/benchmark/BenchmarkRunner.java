@@ -0,0 +1,38 @@
+package develop.toolkit.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.stream.Stream;
+
+/**
+ * 基准测试启动器
+ * <p>
+ * 用法: java -Dthreads=1,4,16 -jar target/benchmarks.jar [include正则]
+ * 每个线程数单独跑一轮，结果输出到 jmh-result-{threads}t.json，作为后续优化的比对基线
+ *
+ * @author qiushui on 2026-10-17.
+ */
+public final class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException {
+        final String include = args.length > 0 ? args[0] : ".*Benchmark.*";
+        final int[] threadCounts = Stream
+                .of(System.getProperty("threads", "1,4,16").split(","))
+                .map(String::trim)
+                .mapToInt(Integer::parseInt)
+                .toArray();
+        for (int threads : threadCounts) {
+            final Options options = new OptionsBuilder()
+                    .include(include)
+                    .threads(threads)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(String.format("jmh-result-%dt.json", threads))
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
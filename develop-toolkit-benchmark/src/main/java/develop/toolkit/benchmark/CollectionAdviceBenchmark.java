@@ -0,0 +1,85 @@
+package develop.toolkit.benchmark;
+
+import develop.toolkit.base.components.Counter;
+import develop.toolkit.base.struct.ListInMap;
+import develop.toolkit.base.struct.LongCounter;
+import develop.toolkit.base.utils.CollectionAdvice;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CollectionAdvice分组基准测试
+ *
+ * @author qiushui on 2026-10-17.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollectionAdviceBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    private int size;
+
+    @Param({"16", "4096"})
+    private int keyCount;
+
+    private List<Item> items;
+
+    @Setup
+    public void setup() {
+        items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            items.add(new Item(i, "key-" + (i % keyCount), i % keyCount));
+        }
+    }
+
+    @Benchmark
+    public ListInMap<String, Item> grouping() {
+        return CollectionAdvice.grouping(items, Item::getKey);
+    }
+
+    @Benchmark
+    public Map<Integer, Item> groupingUniqueKey() {
+        return CollectionAdvice.groupingUniqueKey(items, Item::getId);
+    }
+
+    @Benchmark
+    public Counter<String> groupingCount() {
+        return CollectionAdvice.groupingCount(items, Item::getKey);
+    }
+
+    @Benchmark
+    public ListInMap<String, Item> parallelGrouping() {
+        return CollectionAdvice.parallelGrouping(items, Item::getKey);
+    }
+
+    @Benchmark
+    public Counter<String> parallelGroupingCount() {
+        return CollectionAdvice.parallelGroupingCount(items, Item::getKey);
+    }
+
+    @Benchmark
+    public LongCounter groupingCountByInt() {
+        return CollectionAdvice.groupingCountByInt(items, Item::getCategory);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Item {
+
+        private final int id;
+
+        private final String key;
+
+        private final int category;
+    }
+}
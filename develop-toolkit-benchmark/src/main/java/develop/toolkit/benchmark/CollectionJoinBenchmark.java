@@ -0,0 +1,96 @@
+package develop.toolkit.benchmark;
+
+import develop.toolkit.base.struct.KeyValuePairs;
+import develop.toolkit.base.struct.ListInMap;
+import develop.toolkit.base.utils.CollectionAdvice;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CollectionAdvice关联基准测试
+ * 对比BiPredicate嵌套循环和按键哈希关联，用于找出两者的交叉点
+ *
+ * @author qiushui on 2026-10-17.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollectionJoinBenchmark {
+
+    @Param({"4", "16", "64", "256", "1024", "10000"})
+    private int size;
+
+    private List<Order> orders;
+
+    private List<Payment> payments;
+
+    private List<Long> orderIds;
+
+    private List<Long> paymentOrderIds;
+
+    @Setup
+    public void setup() {
+        orders = new ArrayList<>(size);
+        payments = new ArrayList<>(size);
+        orderIds = new ArrayList<>(size);
+        paymentOrderIds = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            orders.add(new Order((long) i));
+            // 一半订单有支付记录，且顺序打乱
+            final long orderId = (i * 7L) % (size * 2L);
+            payments.add(new Payment(i, orderId));
+            orderIds.add((long) i);
+            paymentOrderIds.add(orderId);
+        }
+    }
+
+    @Benchmark
+    public KeyValuePairs<Order, Payment> associateOneByPredicate() {
+        return CollectionAdvice.associateOne(orders, payments, (o, p) -> o.getId() == p.getOrderId());
+    }
+
+    @Benchmark
+    public KeyValuePairs<Order, Payment> associateOneByKey() {
+        return CollectionAdvice.associateOne(orders, payments, Order::getId, Payment::getOrderId);
+    }
+
+    @Benchmark
+    public ListInMap<Order, Payment> associateByPredicate() {
+        return CollectionAdvice.associate(orders, payments, (o, p) -> o.getId() == p.getOrderId());
+    }
+
+    @Benchmark
+    public ListInMap<Order, Payment> associateByKey() {
+        return CollectionAdvice.associate(orders, payments, Order::getId, Payment::getOrderId);
+    }
+
+    @Benchmark
+    public Set<Long> intersection() {
+        return CollectionAdvice.intersection(orderIds, paymentOrderIds);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Order {
+
+        private final long id;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Payment {
+
+        private final long id;
+
+        private final long orderId;
+    }
+}
@@ -0,0 +1,50 @@
+package develop.toolkit.benchmark;
+
+import develop.toolkit.base.components.Counter;
+import develop.toolkit.base.struct.KeyValuePairs;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counter基准测试
+ * 所有线程共享同一个计数器，线程数由BenchmarkRunner或 -t 参数控制
+ *
+ * @author qiushui on 2026-10-17.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CounterBenchmark {
+
+    @Param({"1", "64", "4096"})
+    private int keyCount;
+
+    private Counter<String> counter;
+
+    private String[] keys;
+
+    @Setup
+    public void setup() {
+        counter = new Counter<>();
+        keys = new String[keyCount];
+        for (int i = 0; i < keyCount; i++) {
+            keys[i] = "event-" + i;
+            counter.add(keys[i]);
+        }
+    }
+
+    @Benchmark
+    public void add() {
+        counter.add(keys[ThreadLocalRandom.current().nextInt(keyCount)]);
+    }
+
+    @Benchmark
+    public KeyValuePairs<String, Long> top10() {
+        return counter.top(10);
+    }
+}
@@ -0,0 +1,69 @@
+package develop.toolkit.benchmark;
+
+import develop.toolkit.base.struct.http.HttpClientConstants;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * HttpClientConstants占位符替换基准测试
+ * legacy是改为编译模板之前的实现 (每次编译正则、逐个占位符String.replace)，作为对照组
+ * 内存分配对比请加 -prof gc 参数运行
+ *
+ * @author qiushui on 2026-10-17.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HttpClientConstantsBenchmark {
+
+    @Param({"0", "1", "4"})
+    private int placeholderCount;
+
+    private HttpClientConstants constants;
+
+    private Map<String, String> constantMap;
+
+    private String template;
+
+    @Setup
+    public void setup() {
+        constants = new HttpClientConstants();
+        constantMap = new HashMap<>();
+        for (int i = 0; i < 8; i++) {
+            constants.putConstant("key" + i, "value-" + i);
+            constantMap.put("key" + i, "value-" + i);
+        }
+        StringBuilder sb = new StringBuilder("https://api.example.com/v1");
+        for (int i = 0; i < placeholderCount; i++) {
+            sb.append("/{{key").append(i).append("}}");
+        }
+        template = sb.append("/orders").toString();
+    }
+
+    @Benchmark
+    public String replace() {
+        return constants.replace(template);
+    }
+
+    @Benchmark
+    public String legacy() {
+        String string = template;
+        final Matcher matcher = Pattern.compile("(?<=\\{\\{)(.+?)(?=\\}\\})").matcher(template);
+        while (matcher.find()) {
+            final String key = matcher.group();
+            final String value = constantMap.get(key);
+            if (value != null) {
+                string = string.replace("{{" + key + "}}", value);
+            }
+        }
+        return string;
+    }
+}
@@ -0,0 +1,84 @@
+package develop.toolkit.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import develop.toolkit.base.utils.JacksonAdvice;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JacksonAdvice基准测试
+ *
+ * @author qiushui on 2026-10-17.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JacksonAdviceBenchmark {
+
+    @Param({"1", "100", "1000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+
+    private List<Order> orders;
+
+    private String json;
+
+    private JsonNode rootNode;
+
+    @Setup
+    public void setup() {
+        objectMapper = JacksonAdvice.defaultObjectMapper();
+        orders = new ArrayList<>(size);
+        final LocalDateTime now = LocalDateTime.of(2026, 1, 1, 12, 0, 0);
+        for (int i = 0; i < size; i++) {
+            orders.add(new Order(i, "NO" + (100000 + i), new BigDecimal("99.90"), now.plusMinutes(i)));
+        }
+        json = JacksonAdvice.serializeQuietly(objectMapper, orders, false);
+        rootNode = objectMapper.valueToTree(Map.of("orders", orders));
+    }
+
+    @Benchmark
+    public String serialize() {
+        return JacksonAdvice.serializeQuietly(objectMapper, orders, false);
+    }
+
+    @Benchmark
+    public List<Order> deserializeCollection() {
+        return JacksonAdvice.deserializeCollectionQuietly(objectMapper, json, ArrayList.class, Order.class);
+    }
+
+    @Benchmark
+    public String deserializeValueByExpression() {
+        return JacksonAdvice.deserializeValue(objectMapper, rootNode, "orders[0].order_no", String.class);
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Order {
+
+        private long id;
+
+        private String orderNo;
+
+        private BigDecimal amount;
+
+        private LocalDateTime createTime;
+    }
+}
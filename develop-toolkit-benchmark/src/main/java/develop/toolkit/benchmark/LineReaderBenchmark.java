@@ -0,0 +1,75 @@
+package develop.toolkit.benchmark;
+
+import develop.toolkit.base.utils.IOAdvice;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * IOAdvice逐行读取基准测试
+ * scanner是改为惰性读取之前的实现 (Scanner读完整个文件放进LinkedList再返回流)，作为对照组
+ * 内存分配对比请加 -prof gc 参数运行
+ *
+ * @author qiushui on 2026-10-17.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LineReaderBenchmark {
+
+    @Param({"10000", "1000000"})
+    private int lines;
+
+    private Path file;
+
+    @Setup
+    public void setup() throws IOException {
+        file = Files.createTempFile("line-reader-benchmark", ".txt");
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < lines; i++) {
+                writer.write(i + "\t用户" + i + "\tuser" + i + "@example.com\t" + (i % 100));
+                writer.newLine();
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public long readLines() throws IOException {
+        try (Stream<String> stream = IOAdvice.readLines(new FileInputStream(file.toFile()), StandardCharsets.UTF_8)) {
+            return stream.mapToLong(String::length).sum();
+        }
+    }
+
+    @Benchmark
+    public long scanner() throws IOException {
+        return scannerReadLines(new FileInputStream(file.toFile())).mapToLong(String::length).sum();
+    }
+
+    private static Stream<String> scannerReadLines(InputStream inputStream) throws IOException {
+        try (inputStream) {
+            Scanner scanner = new Scanner(inputStream, StandardCharsets.UTF_8);
+            List<String> lines = new LinkedList<>();
+            while (scanner.hasNext()) {
+                lines.add(scanner.nextLine());
+            }
+            scanner.close();
+            return lines.stream();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package develop.toolkit.benchmark;
+
+import develop.toolkit.base.components.IdBuffer;
+import develop.toolkit.base.components.SnowflakeIdWorker;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SnowflakeIdWorker基准测试
+ * 所有线程共享同一个生成器，线程数由BenchmarkRunner或 -t 参数控制
+ * synchronizedNextId为改为CAS实现之前的加锁版本，作为对照
+ * idBufferNextId从预生成的缓冲区取号
+ *
+ * @author qiushui on 2026-10-17.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnowflakeIdWorkerBenchmark {
+
+    private static final int BATCH_SIZE = 256;
+
+    private SnowflakeIdWorker worker;
+
+    private SynchronizedSnowflakeIdWorker synchronizedWorker;
+
+    private IdBuffer idBuffer;
+
+    @Setup
+    public void setup() {
+        worker = new SnowflakeIdWorker(1L, 1L);
+        synchronizedWorker = new SynchronizedSnowflakeIdWorker(1L, 1L);
+        idBuffer = new IdBuffer(SnowflakeIdWorker.builder().workerId(2L).datacenterId(1L).borrowMillis(100L).build(), 1 << 16);
+    }
+
+    @TearDown
+    public void tearDown() {
+        idBuffer.close();
+    }
+
+    @Benchmark
+    public long nextId() {
+        return worker.nextId();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public long[] nextIds() {
+        return worker.nextIds(BATCH_SIZE);
+    }
+
+    @Benchmark
+    public long synchronizedNextId() {
+        return synchronizedWorker.nextId();
+    }
+
+    @Benchmark
+    public long idBufferNextId() {
+        return idBuffer.nextId();
+    }
+}
@@ -0,0 +1,67 @@
+package develop.toolkit.benchmark;
+
+import develop.toolkit.base.utils.StringAdvice;
+import org.openjdk.jmh.annotations.*;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * StringAdvice.urlParametersFormat基准测试
+ * legacy是改为单次遍历StringBuilder之前的实现 (Stream + 每对参数String.format + URLEncoder)，作为对照组
+ *
+ * @author qiushui on 2026-10-17.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringAdviceBenchmark {
+
+    @Param({"1", "8", "32"})
+    private int parameterCount;
+
+    private Map<String, Object> parameters;
+
+    @Setup
+    public void setup() {
+        parameters = new LinkedHashMap<>();
+        for (int i = 0; i < parameterCount; i++) {
+            switch (i % 4) {
+                case 0:
+                    parameters.put("id" + i, 10000L + i);
+                    break;
+                case 1:
+                    parameters.put("name" + i, "develop_toolkit-" + i);
+                    break;
+                case 2:
+                    parameters.put("query" + i, "a b&c=d/e?f");
+                    break;
+                default:
+                    parameters.put("city" + i, "杭州市西湖区");
+                    break;
+            }
+        }
+    }
+
+    @Benchmark
+    public String urlParametersFormat() {
+        return StringAdvice.urlParametersFormat(parameters, true);
+    }
+
+    @Benchmark
+    public String legacy() {
+        return "?" + parameters
+                .entrySet()
+                .stream()
+                .filter(kv -> kv.getValue() != null)
+                .map(kv -> String.format("%s=%s", kv.getKey(), URLEncoder.encode(kv.getValue().toString(), StandardCharsets.UTF_8)))
+                .collect(Collectors.joining("&"));
+    }
+}
@@ -1,6 +1,7 @@
 package develop.toolkit.db.mysql;
 
 import com.github.developframework.expression.ExpressionUtils;
+import develop.toolkit.base.components.BeanBinder;
 import develop.toolkit.base.utils.JavaBeanUtils;
 import develop.toolkit.base.utils.K;
 import lombok.Getter;
@@ -8,6 +9,7 @@ import org.apache.commons.lang3.StringUtils;
 
 import java.sql.*;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -87,6 +89,7 @@ public class MysqlClient implements AutoCloseable {
     }
 
     public <T> int insertAll(String table, Collection<T> collection, String... fields) throws SQLException {
+        final List<Function<T, Object>> getters = getters(collection, fields);
         String sql = new StringBuilder()
                 .append("INSERT INTO ").append(table).append("(")
                 .append(Stream.of(fields).map(f -> String.format("`%s`", f)).collect(Collectors.joining(",")))
@@ -95,12 +98,10 @@ public class MysqlClient implements AutoCloseable {
                         collection
                                 .stream()
                                 .map(data ->
-                                        Stream.of(fields)
-                                                .map(field -> {
-                                                    String value = K.map(
-                                                            ExpressionUtils.getValue(data, JavaBeanUtils.underlineToCamelcase(field)),
-                                                            Object::toString
-                                                    );
+                                        getters
+                                                .stream()
+                                                .map(getter -> {
+                                                    String value = K.map(getter.apply(data), Object::toString);
                                                     return StringUtils.isNumeric(value) ? value : ("'" + value + "'");
                                                 })
                                                 .collect(Collectors.joining(",", "(", ")"))
@@ -139,6 +140,39 @@ public class MysqlClient implements AutoCloseable {
         return executeUpdate(sql, null);
     }
 
+    /**
+     * 每个字段的取值函数，实体类通过BeanBinder只解析一次，Map或混合类型仍然按表达式取值
+     */
+    @SuppressWarnings("unchecked")
+    private <T> List<Function<T, Object>> getters(Collection<T> collection, String[] fields) {
+        final List<Function<T, Object>> getters = new ArrayList<>(fields.length);
+        final Iterator<T> iterator = collection.iterator();
+        final Class<T> beanClass = iterator.hasNext() ? (Class<T>) iterator.next().getClass() : null;
+        final boolean sameClass = beanClass != null
+                && !Map.class.isAssignableFrom(beanClass)
+                && collection.stream().allMatch(data -> data.getClass() == beanClass);
+        for (String field : fields) {
+            final String property = JavaBeanUtils.underlineToCamelcase(field);
+            getters.add(
+                    sameClass
+                            ? beanGetter(BeanBinder.of(beanClass), property)
+                            : data -> ExpressionUtils.getValue(data, property)
+            );
+        }
+        return getters;
+    }
+
+    /**
+     * 实体类没有该属性时取值为null，与ExpressionUtils.getValue一致
+     */
+    private static <T> Function<T, Object> beanGetter(BeanBinder<T> binder, String property) {
+        try {
+            return binder.getter(property);
+        } catch (IllegalArgumentException e) {
+            return data -> null;
+        }
+    }
+
     @Override
     public void close() throws SQLException {
         connection.close();
@@ -3,9 +3,9 @@ package develop.toolkit.db.mysql;
 import develop.toolkit.base.utils.IOAdvice;
 
 import java.util.HashMap;
-import java.util.List;
+import java.util.Iterator;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * @author qiushui on 2019-09-18.
@@ -22,21 +22,24 @@ public class SQLFactory {
     }
 
     private void parseSqlFile(String sqlFile) {
-        List<String> lines = IOAdvice.readLinesFromClasspath(sqlFile).collect(Collectors.toList());
         String key = null;
         StringBuilder sb = new StringBuilder();
-        for (String line : lines) {
-            if (line.isBlank()) {
-                continue;
-            }
-            if (line.startsWith("#")) {
-                putSql(key, sb);
-                key = line.substring(1).trim();
-            } else {
-                if (sb.length() > 0) {
-                    sb.append(" ");
+        try (Stream<String> lines = IOAdvice.readLinesFromClasspath(sqlFile)) {
+            final Iterator<String> iterator = lines.iterator();
+            while (iterator.hasNext()) {
+                final String line = iterator.next();
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (line.startsWith("#")) {
+                    putSql(key, sb);
+                    key = line.substring(1).trim();
+                } else {
+                    if (sb.length() > 0) {
+                        sb.append(" ");
+                    }
+                    sb.append(line.trim());
                 }
-                sb.append(line.trim());
             }
         }
         putSql(key, sb);
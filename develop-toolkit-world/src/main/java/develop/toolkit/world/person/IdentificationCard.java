@@ -1,5 +1,7 @@
 package develop.toolkit.world.person;
 
+import develop.toolkit.base.components.CompiledMatcher;
+import develop.toolkit.base.utils.StringAdvice;
 import develop.toolkit.world.normal.Region;
 import develop.toolkit.world.verify.Regex;
 import lombok.EqualsAndHashCode;
@@ -25,6 +27,8 @@ public class IdentificationCard implements Serializable {
 
     private static final long serialVersionUID = -3165541953812379182L;
 
+    private static final CompiledMatcher IDENTIFICATION_CARD_RELAXED = StringAdvice.compile(Regex.IDENTIFICATION_CARD_RELAXED);
+
     /* 身份证号 */
     private String card;
 
@@ -72,7 +76,7 @@ public class IdentificationCard implements Serializable {
      * 验证身份证号有效
      */
     public static boolean isValid(String card) {
-        if (card != null && card.matches(Regex.IDENTIFICATION_CARD_RELAXED)) {
+        if (IDENTIFICATION_CARD_RELAXED.matches(card)) {
             if (card.length() == 15) {
                 return true;
             } else {
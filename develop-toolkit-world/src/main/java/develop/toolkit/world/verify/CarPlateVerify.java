@@ -1,5 +1,8 @@
 package develop.toolkit.world.verify;
 
+import develop.toolkit.base.components.CompiledMatcher;
+import develop.toolkit.base.utils.StringAdvice;
+
 /**
  * 车牌验证
  *
@@ -7,6 +10,8 @@ package develop.toolkit.world.verify;
  */
 public final class CarPlateVerify {
 
+    private static final CompiledMatcher PLATE_RELAXED = StringAdvice.compile("^[京津晋冀蒙辽吉黑沪苏浙皖闽赣鲁豫鄂湘粤桂琼渝川贵云藏陕甘青宁新][A-Z].{5,6}$");
+
     /**
      * 参考https://my.oschina.net/chenyoca/blog/1571062
      */
@@ -29,7 +34,7 @@ public final class CarPlateVerify {
      * 宽松的验证
      */
     public static boolean checkValidRelaxed(String plate) {
-        return plate.matches("^[京津晋冀蒙辽吉黑沪苏浙皖闽赣鲁豫鄂湘粤桂琼渝川贵云藏陕甘青宁新][A-Z].{5,6}$");
+        return PLATE_RELAXED.getPattern().matcher(plate).matches();
     }
 
     /**
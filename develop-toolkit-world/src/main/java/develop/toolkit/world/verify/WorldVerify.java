@@ -1,5 +1,7 @@
 package develop.toolkit.world.verify;
 
+import develop.toolkit.base.components.CompiledMatcher;
+import develop.toolkit.base.utils.StringAdvice;
 import develop.toolkit.world.person.IdentificationCard;
 
 /**
@@ -10,18 +12,22 @@ import develop.toolkit.world.person.IdentificationCard;
 @SuppressWarnings("unused")
 public final class WorldVerify {
 
+    private static final CompiledMatcher MOBILE_RELAXED = StringAdvice.compile(Regex.MOBILE_RELAXED);
+
+    private static final CompiledMatcher IDENTIFICATION_CARD_RELAXED = StringAdvice.compile(Regex.IDENTIFICATION_CARD_RELAXED);
+
     /**
      * 不严格验证手机号
      */
     public static boolean isMobileRelaxed(String mobile) {
-        return mobile != null && mobile.matches(Regex.MOBILE_RELAXED);
+        return MOBILE_RELAXED.matches(mobile);
     }
 
     /**
      * 不严格验证身份证
      */
     public static boolean isIdentificationCardRelaxed(String card) {
-        return card != null && card.matches(Regex.IDENTIFICATION_CARD_RELAXED);
+        return IDENTIFICATION_CARD_RELAXED.matches(card);
     }
 
     /**